@@ -25,7 +25,7 @@ check_prerequisites() {
     
     # Check Java
     if ! command -v java &> /dev/null; then
-        echo "❌ Java is not installed. Please install Java 17 or higher."
+        echo "❌ Java is not installed. Please install Java 21 or higher."
         exit 1
     fi
     
@@ -0,0 +1,84 @@
+package com.langhakers.talki.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.langhakers.talki.dto.AIConversationDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 서버 프레임 처리 비교: 전체 트리(readTree)를 만든 뒤 type을 보는 방식과
+ * 스트리밍 파서로 type만 먼저 읽고 저장 대상만 DTO로 바인딩하는 방식(AIWebSocketClientService.readType).
+ * 대부분의 프레임은 저장하지 않는 부분 전사(partial)이고, 저장 대상(final)은 본문이 큰 편입니다.
+ * 할당량은 -prof gc로 확인: ./gradlew jmh -PjmhIncludes=AIFrameParseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AIFrameParseBenchmark {
+
+    private static final Set<String> SAVE_MESSAGE_TYPES = Set.of(
+            "final_user_request", "final_assistant_answer", "ai_conversation_paused_status");
+
+    @Param({"partial", "final"})
+    public String frame;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader conversationReader = objectMapper.readerFor(AIConversationDTO.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final AIWebSocketClientService service = new AIWebSocketClientService(null, null);
+    private String message;
+
+    @Setup
+    public void setUp() {
+        if ("partial".equals(frame)) {
+            message = "{\"type\":\"partial_transcript\",\"session_id\":\"s-1\",\"content\":\"오늘 날씨가\","
+                    + "\"words\":[{\"w\":\"오늘\",\"start\":0.12,\"end\":0.4},{\"w\":\"날씨가\",\"start\":0.41,\"end\":0.9}],"
+                    + "\"confidence\":0.87}";
+        } else {
+            // 큰 본문 뒤에 type이 오는 최종 답변
+            message = "{\"content\":\"" + "가나다라마바사아자차카타파하 ".repeat(300) + "\","
+                    + "\"role\":\"assistant\",\"session_id\":\"s-1\",\"user_id\":\"u-1\","
+                    + "\"client_timestamp\":1760000000000,\"type\":\"final_assistant_answer\"}";
+        }
+    }
+
+    @Benchmark
+    public Object readTree() throws Exception {
+        JsonNode node = objectMapper.readTree(message);
+        String messageType = node.path("type").asText();
+        if (!SAVE_MESSAGE_TYPES.contains(messageType)) {
+            return messageType;
+        }
+        AIConversationDTO dto = new AIConversationDTO();
+        dto.setType(messageType);
+        dto.setContent(node.path("content").asText());
+        dto.setRole(node.path("role").asText());
+        dto.setSessionId(node.path("session_id").asText("default-session"));
+        dto.setUserId(node.path("user_id").asText("ai-user"));
+        if (node.hasNonNull("client_timestamp")) {
+            dto.setClientTimestamp(node.path("client_timestamp").asLong());
+        }
+        return dto;
+    }
+
+    @Benchmark
+    public Object streamingPreParse() throws Exception {
+        String messageType = service.readType(message);
+        if (messageType == null || !SAVE_MESSAGE_TYPES.contains(messageType)) {
+            return messageType;
+        }
+        return conversationReader.readValue(message);
+    }
+}
@@ -0,0 +1,66 @@
+package com.langhakers.talki.websocket;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.langhakers.talki.dto.MessageDTO;
+import com.langhakers.talki.dto.TALKiCharacterMessageDTO;
+import com.langhakers.talki.dto.TALKiInboundMessageDTO;
+import com.langhakers.talki.dto.TALKiMessageDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 수신 프레임 디코딩 비교: 이전 방식(TALKiMessageDTO로 읽어 data를 Map으로 만든 뒤 convertValue,
+ * 기존 채팅 메시지는 MessageDTO로 한 번 더 파싱)과 TALKiInboundMessageDTO로 한 번에 타입별 DTO를 읽는 방식.
+ * 할당량(gc.alloc.rate.norm)은 -prof gc로 확인: ./gradlew jmh -PjmhIncludes=InboundDecodeBenchmark -PjmhProfilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InboundDecodeBenchmark {
+
+    @Param({"character", "dataFirst", "legacy"})
+    public String frame;
+
+    // 기존 채팅 프레임도 읽을 수 있도록 알 수 없는 필드는 무시
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final ObjectReader inboundReader = objectMapper.readerFor(TALKiInboundMessageDTO.class);
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        String data = "{\"session_id\":\"s-1\",\"branch_id\":\"b-1\",\"character_id\":\"ai1\","
+                + "\"message\":\"오늘은 어떤 이야기를 해 볼까요? 어제 본 영화 이야기를 해 주세요.\","
+                + "\"message_type\":\"text\",\"emotion\":\"happy\",\"animation\":\"wave\"}";
+        payload = switch (frame) {
+            case "character" -> "{\"type\":\"CHARACTER_MESSAGE\",\"data\":" + data + "}";
+            case "dataFirst" -> "{\"data\":" + data + ",\"type\":\"CHARACTER_MESSAGE\"}";
+            default -> "{\"senderId\":\"u-1\",\"senderName\":\"민지\",\"content\":\"안녕하세요, 반갑습니다!\"}";
+        };
+    }
+
+    @Benchmark
+    public Object mapThenConvert() throws Exception {
+        TALKiMessageDTO message = objectMapper.readValue(payload, TALKiMessageDTO.class);
+        if ("CHARACTER_MESSAGE".equals(message.getType())) {
+            return objectMapper.convertValue(message.getData(), TALKiCharacterMessageDTO.class);
+        }
+        return objectMapper.readValue(payload, MessageDTO.class);
+    }
+
+    @Benchmark
+    public Object typedSinglePass() throws Exception {
+        TALKiInboundMessageDTO message = inboundReader.readValue(payload);
+        return message.getData() != null ? message.getData() : message.getContent();
+    }
+}
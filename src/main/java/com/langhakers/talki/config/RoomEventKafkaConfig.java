@@ -0,0 +1,89 @@
+package com.langhakers.talki.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 파드 간 룸 이벤트 팬아웃용 Kafka 설정.
+ * 이벤트 값은 이미 인코딩된 WebSocket 프레임(JSON 바이트)이므로 바이트 배열 직렬화기를 사용하고,
+ * 모든 파드가 모든 이벤트를 받아야 하므로 컨슈머는 그룹 없이 파티션을 직접 할당받습니다 (RoomEventListener).
+ */
+@Configuration
+@ConditionalOnProperty(name = "talki.cluster.fanout.enabled", havingValue = "true")
+public class RoomEventKafkaConfig {
+
+    @Value("${talki.cluster.fanout.topic:talki.room-events}")
+    private String topic;
+
+    @Value("${talki.cluster.fanout.partitions:12}")
+    private int partitions;
+
+    @Value("${talki.cluster.fanout.replicas:1}")
+    private short replicas;
+
+    @Value("${talki.cluster.fanout.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${talki.cluster.fanout.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${talki.cluster.fanout.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Bean
+    public NewTopic roomEventTopic() {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> roomEventKafkaTemplate(KafkaProperties kafkaProperties) {
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildProducerProperties(null));
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        // 짧은 linger로 같은 파티션의 이벤트를 묶어서 전송
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.ACKS_CONFIG, "1");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> roomEventListenerContainerFactory(
+            KafkaProperties kafkaProperties) {
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        // 그룹 없이 직접 할당받으므로 공통 설정의 group.id는 쓰지 않고 오프셋도 커밋하지 않음
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // 실시간 팬아웃이므로 기동 이전 이벤트는 재생하지 않음
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        return factory;
+    }
+}
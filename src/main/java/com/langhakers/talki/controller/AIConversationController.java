@@ -1,12 +1,18 @@
 package com.langhakers.talki.controller;
 
+import com.langhakers.talki.dto.AIConversationBatchResultDTO;
 import com.langhakers.talki.dto.AIConversationDTO;
+import com.langhakers.talki.dto.AIConversationPageDTO;
 import com.langhakers.talki.entity.AIConversation;
+import com.langhakers.talki.exception.ResourceNotFoundException;
 import com.langhakers.talki.service.AIConversationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -53,6 +59,40 @@ public class AIConversationController {
         }
     }
 
+    /**
+     * 한 턴의 대화 이벤트를 한 번에 저장하는 배치 엔드포인트 (JSON 배열)
+     * 항목별 결과(index, success, id, message)를 요청 순서대로 반환합니다.
+     */
+    @PostMapping(value = "/save/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> saveConversationBatch(@RequestBody List<AIConversationDTO> dtos) {
+        try {
+            return ResponseEntity.ok(aiConversationService.saveConversations(dtos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("AI 대화 배치 저장 중 오류 발생", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("success", false, "message", "서버 오류가 발생했습니다: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 배치 엔드포인트 (NDJSON 스트리밍 본문, 한 줄에 이벤트 하나)
+     */
+    @PostMapping(value = "/save/batch", consumes = "application/x-ndjson")
+    public ResponseEntity<?> saveConversationBatchNdjson(HttpServletRequest request) {
+        try {
+            AIConversationBatchResultDTO result = aiConversationService.saveConversationsNdjson(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("AI 대화 배치(NDJSON) 저장 중 오류 발생", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("success", false, "message", "서버 오류가 발생했습니다: " + e.getMessage()));
+        }
+    }
+
     /**
      * 세션별 대화 내역 조회
      */
@@ -111,6 +151,69 @@ public class AIConversationController {
         }
     }
 
+    /**
+     * 세션별 대화 페이지 조회 (오래된 순, 키셋)
+     * 예: /ai-conversation/session/{sessionId}/page?afterId=1234&limit=50
+     */
+    @GetMapping("/session/{sessionId}/page")
+    public ResponseEntity<AIConversationPageDTO> getSessionPage(
+            @PathVariable String sessionId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(aiConversationService.getSessionPage(sessionId, afterId, limit));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 사용자별 대화 페이지 조회 (최신 순, 키셋)
+     * 예: /ai-conversation/user/{userId}/page?beforeId=1234&limit=50
+     */
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<AIConversationPageDTO> getUserPage(
+            @PathVariable String userId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(aiConversationService.getUserPage(userId, beforeId, limit));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 최종 메시지 페이지 조회 (최신 순, 키셋)
+     */
+    @GetMapping("/final-messages/page")
+    public ResponseEntity<AIConversationPageDTO> getFinalMessagesPage(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(aiConversationService.getFinalMessagesPage(beforeId, limit));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 세션 대화 전체를 NDJSON으로 내보내기 (한 줄에 대화 하나, 오래된 순)
+     */
+    @GetMapping(value = "/session/{sessionId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportSession(@PathVariable String sessionId) {
+        StreamingResponseBody body = out -> aiConversationService.exportSession(sessionId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * 세션별 대화 개수 조회
      */
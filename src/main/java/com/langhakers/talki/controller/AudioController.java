@@ -4,10 +4,14 @@ import com.langhakers.talki.dto.AudioRequest;
 import com.langhakers.talki.dto.AudioResponse;
 import com.langhakers.talki.dto.UtteranceRequest;
 import com.langhakers.talki.dto.UtteranceResponse;
+import com.langhakers.talki.exception.PayloadTooLargeException;
 import com.langhakers.talki.service.AudioService;
 import com.langhakers.talki.util.FileStorageUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,18 +27,50 @@ public class AudioController {
     private final AudioService audioService;
     private final FileStorageUtil fileStorageUtil;
 
+    @Value("${talki.audio.upload.stream-max-bytes:10485760}")
+    private long streamMaxBytes;
+
     @PostMapping("/upload")
     public ResponseEntity<AudioResponse> uploadAudioFile(@RequestParam("file") MultipartFile file,
                                                          @RequestParam("durationMillis") Long durationMillis) throws IOException {
-        String storedFileName = fileStorageUtil.saveFile(file);
-        String fileUrl = "/audio/files/" + storedFileName;
+        FileStorageUtil.StoredFile stored = fileStorageUtil.store(file.getInputStream(), file.getOriginalFilename());
+        return ResponseEntity.ok(createAudio(stored, durationMillis));
+    }
+
+    /**
+     * 멀티파트 없이 요청 본문을 그대로 받아 저장하는 업로드.
+     * 본문이 임시 파일을 거치지 않고 저장 디렉터리에 바로 기록됩니다.
+     * 예: POST /audio/upload/stream?filename=clip.mp3&durationMillis=1200 (Content-Type: audio/mpeg)
+     * 본문이 talki.audio.upload.stream-max-bytes를 넘으면 413으로 응답합니다.
+     */
+    @PostMapping("/upload/stream")
+    public ResponseEntity<AudioResponse> uploadAudioStream(HttpServletRequest servletRequest,
+                                                           @RequestParam(value = "filename", required = false) String filename,
+                                                           @RequestParam("durationMillis") Long durationMillis) throws IOException {
+        if (servletRequest.getContentLengthLong() > streamMaxBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        FileStorageUtil.StoredFile stored;
+        try {
+            stored = fileStorageUtil.store(servletRequest.getInputStream(), filename,
+                    servletRequest.getContentType(), streamMaxBytes);
+        } catch (PayloadTooLargeException e) {
+            // Content-Length가 없거나 실제 본문이 더 긴 경우
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(createAudio(stored, durationMillis));
+    }
+
+    private AudioResponse createAudio(FileStorageUtil.StoredFile stored, Long durationMillis) {
+        String fileUrl = "/audio/files/" + stored.getFileName();
 
         AudioRequest request = new AudioRequest();
-        request.setFileName(storedFileName);
+        request.setFileName(stored.getFileName());
         request.setDurationMillis(durationMillis);
+        request.setContentHash(stored.getContentHash());
+        request.setSizeBytes(stored.getSizeBytes());
 
-        AudioResponse response = audioService.createAudio(request, fileUrl);
-        return ResponseEntity.ok(response);
+        return audioService.createAudio(request, fileUrl);
     }
 
     @PostMapping("/utterance")
@@ -1,13 +1,14 @@
 package com.langhakers.talki.controller;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import com.langhakers.talki.util.AudioFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -16,25 +17,29 @@ import java.nio.file.Paths;
 public class AudioFileController {
 
     private final Path fileBasePath = Paths.get("./audio_files").toAbsolutePath().normalize();
+    private final AudioFileSender audioFileSender;
 
-    @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> getAudioFile(@PathVariable String filename) {
-        try {
-            Path filePath = fileBasePath.resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+    @Autowired
+    public AudioFileController(AudioFileSender audioFileSender) {
+        this.audioFileSender = audioFileSender;
+    }
 
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = "audio/mpeg";  // 필요하면 확장자별 MIME 타입 구분 가능
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
+    /**
+     * 오디오 파일 전송. Range(206), 조건부 요청(304), 확장자별 Content-Type을 지원합니다.
+     */
+    @RequestMapping(value = "/{filename:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getAudioFile(@PathVariable String filename, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Path filePath = fileBasePath.resolve(filename).normalize();
+        // 저장 디렉터리 밖의 경로(../ 등)는 허용하지 않음
+        if (!filePath.startsWith(fileBasePath)) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        if (!Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
+        audioFileSender.send(filePath, request, response);
     }
 }
-
@@ -1,10 +1,17 @@
 package com.langhakers.talki.controller;
 
+import com.langhakers.talki.dto.ResolvedTTSRoute;
+import com.langhakers.talki.dto.TTSStreamingProgressDTO;
 import com.langhakers.talki.entity.*;
+import com.langhakers.talki.exception.ResourceNotFoundException;
 import com.langhakers.talki.service.TTSRoutingService;
+import com.langhakers.talki.service.TTSStreamingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -17,6 +24,9 @@ public class TTSRoutingController {
     @Autowired
     private TTSRoutingService ttsRoutingService;
     
+    @Autowired
+    private TTSStreamingService ttsStreamingService;
+    
     @PostMapping("/routing-config")
     public ResponseEntity<TTSRoutingConfig> createRoutingConfig(@RequestBody Map<String, Object> request) {
         String sessionId = (String) request.get("sessionId");
@@ -64,6 +74,17 @@ public class TTSRoutingController {
         }
     }
     
+    @GetMapping("/routing/session/{sessionId}/participant/{participantId}")
+    public ResponseEntity<ResolvedTTSRoute> resolveRoute(
+            @PathVariable String sessionId,
+            @PathVariable String participantId) {
+        ResolvedTTSRoute route = ttsRoutingService.resolveRoute(sessionId, participantId);
+        if (route.getRoutes().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(route);
+    }
+    
     @PutMapping("/routing-config/{routingId}")
     public ResponseEntity<TTSRoutingConfig> updateRoutingConfig(
             @PathVariable String routingId,
@@ -127,7 +148,7 @@ public class TTSRoutingController {
     }
     
     @PutMapping("/streaming/{streamingSessionId}/progress")
-    public ResponseEntity<TTSStreamingSession> updateStreamingProgress(
+    public ResponseEntity<TTSStreamingProgressDTO> updateStreamingProgress(
             @PathVariable String streamingSessionId,
             @RequestBody Map<String, Object> request) {
         
@@ -139,9 +160,20 @@ public class TTSRoutingController {
             Long.valueOf(request.get("durationMs").toString()) : null;
         
         try {
-            TTSStreamingSession session = ttsRoutingService.updateStreamingProgress(
+            TTSStreamingProgressDTO progress = ttsRoutingService.updateStreamingProgress(
                 streamingSessionId, chunkCount, totalBytes, durationMs);
-            return ResponseEntity.ok(session);
+            return ResponseEntity.ok(progress);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/streaming/{streamingSessionId}/progress")
+    public ResponseEntity<TTSStreamingProgressDTO> getStreamingProgress(@PathVariable String streamingSessionId) {
+        try {
+            return ResponseEntity.ok(ttsRoutingService.getStreamingProgress(streamingSessionId));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -159,4 +191,31 @@ public class TTSRoutingController {
         List<TTSStreamingSession> sessions = ttsRoutingService.getStuckStreamingSessions(timeoutMinutes);
         return ResponseEntity.ok(sessions);
     }
+    
+    /**
+     * TTS 오디오 스트리밍 (chunked). POST /streaming으로 만든 대기 중인 세션을 재생합니다.
+     * 예: GET /api/tts/stream/ai1?streamingSessionId=...
+     */
+    @GetMapping("/stream/{characterId}")
+    public ResponseEntity<StreamingResponseBody> streamAudio(
+            @PathVariable String characterId,
+            @RequestParam String streamingSessionId) {
+        
+        TTSStreamingService.StreamTicket ticket;
+        try {
+            ticket = ttsStreamingService.open(characterId, streamingSessionId);
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        StreamingResponseBody body = out -> ttsStreamingService.stream(ticket, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(ticket.getOutputFormat().getMimeType()))
+            .header("X-TTS-Streaming-Session-Id", streamingSessionId)
+            .body(body);
+    }
 }
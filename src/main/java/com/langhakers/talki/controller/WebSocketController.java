@@ -1,12 +1,16 @@
 package com.langhakers.talki.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.langhakers.talki.dto.MessageDTO;
+import com.langhakers.talki.dto.MessagePageDTO;
+import com.langhakers.talki.exception.ResourceNotFoundException;
 import com.langhakers.talki.service.ChatService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -30,5 +34,25 @@ public class WebSocketController {
     public ResponseEntity<List<MessageDTO>> getMessages(@PathVariable String roomId) {
         return ResponseEntity.ok(chatService.getMessages(roomId));
     }
-}
 
+    /**
+     * 채팅 기록 커서 페이지 조회.
+     * 예: /ws/messages/{roomId}/page?beforeId=1234&limit=50
+     */
+    @GetMapping("/messages/{roomId}/page")
+    public ResponseEntity<MessagePageDTO> getMessagePage(
+            @PathVariable String roomId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(chatService.getMessagePage(roomId, afterId, beforeId, after, before, limit));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
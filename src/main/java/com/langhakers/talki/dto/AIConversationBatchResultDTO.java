@@ -0,0 +1,35 @@
+package com.langhakers.talki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * AI 대화 배치 저장 결과.
+ * results는 요청 순서(index)와 같은 순서이며, 검증에 실패한 항목만 저장되지 않습니다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIConversationBatchResultDTO {
+    private boolean success;
+    private int received;
+    private int saved;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private boolean success;
+        private Long id;
+        private String message;
+    }
+}
@@ -36,6 +36,10 @@ public class AIConversationDTO {
     @JsonProperty("metadata")
     private String metadata; // JSON 형태의 추가 메타데이터
 
+    // ai_conversation_paused_status 프레임의 일시정지 여부 (수신 전용, metadata로 저장됨)
+    @JsonProperty(value = "is_paused", access = JsonProperty.Access.WRITE_ONLY)
+    private Boolean isPaused;
+
     // AI 서버에서 보내는 기본 데이터 구조에 맞는 생성자
     public AIConversationDTO(String type, String content, String role) {
         this.type = type;
@@ -0,0 +1,23 @@
+package com.langhakers.talki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * AI 대화 키셋 페이지.
+ * 다음 페이지는 nextCursor를 커서 파라미터(afterId 또는 beforeId)로 넘겨 조회합니다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIConversationPageDTO {
+    private List<AIConversationResponseDTO> conversations;
+    private boolean hasMore;
+    // 마지막 항목의 id (페이지가 비어 있으면 null)
+    private Long nextCursor;
+}
@@ -0,0 +1,49 @@
+package com.langhakers.talki.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI 대화 조회 응답. 엔티티 대신 사용하며 필드 이름은 AI 서버가 보내는 형식(AIConversationDTO)과 맞춥니다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIConversationResponseDTO {
+
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("content")
+    private String content;
+
+    @JsonProperty("role")
+    private String role;
+
+    @JsonProperty("session_id")
+    private String sessionId;
+
+    @JsonProperty("user_id")
+    private String userId;
+
+    @JsonProperty("client_timestamp")
+    private Long clientTimestamp;
+
+    @JsonProperty("server_timestamp")
+    private Long serverTimestamp;
+
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+
+    @JsonProperty("metadata")
+    private String metadata;
+}
@@ -8,5 +8,7 @@ import lombok.Setter;
 public class AudioRequest {
     private String fileName;
     private Long durationMillis;
+    private String contentHash;
+    private Long sizeBytes;
 }
 
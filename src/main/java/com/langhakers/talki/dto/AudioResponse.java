@@ -14,5 +14,7 @@ public class AudioResponse {
     private String fileUrl;
     private Long durationMillis;
     private LocalDateTime createdAt;
+    private String contentHash;
+    private Long sizeBytes;
 }
 
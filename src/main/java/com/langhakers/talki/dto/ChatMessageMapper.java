@@ -18,6 +18,7 @@ public interface ChatMessageMapper {
     MessageDTO entityToDto(ChatMessage entity);
 
     @Mapping(target = "timestamp", source = "timestamp")
+    @Mapping(target = "id", ignore = true)
     ChatMessage dtoToEntity(MessageDTO dto);
 
     // gRPC long → LocalDateTime
@@ -0,0 +1,25 @@
+package com.langhakers.talki.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 채팅 기록 키셋 페이지.
+ * messages는 항상 오래된 순이며, 더 오래된 메시지는 beforeId=oldestId,
+ * 더 새로운 메시지는 afterId=newestId로 이어서 조회합니다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDTO {
+    private List<MessageDTO> messages;
+    // 조회 방향으로 메시지가 더 남아 있는지 여부
+    private boolean hasMore;
+    private Long oldestId;
+    private Long newestId;
+}
@@ -0,0 +1,48 @@
+package com.langhakers.talki.dto;
+
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.TTSProvider;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * (세션, 참가자)에 대해 해석된 TTS 라우팅.
+ * routes는 우선순위 순서이며 첫 항목이 기본 경로, 나머지는 장애 시 차례로 시도할 대체 경로입니다.
+ * 캐시에 보관되므로 불변 객체로 유지합니다.
+ */
+@Getter
+@AllArgsConstructor
+public class ResolvedTTSRoute {
+    private final String sessionId;
+    private final String participantId;
+    private final List<Route> routes;
+
+    public Route getPrimary() {
+        return routes.isEmpty() ? null : routes.get(0);
+    }
+
+    /**
+     * 우선순위 순서의 제공업체 목록 (중복 제거)
+     */
+    public List<TTSProvider> getFailoverProviders() {
+        return routes.stream().map(Route::getProvider).distinct().toList();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Route {
+        private final String routingId;
+        private final TTSProvider provider;
+        private final String voiceId;
+        private final String language;
+        private final AudioFormat audioFormat;
+        private final Integer sampleRate;
+        private final Float speed;
+        private final Float pitch;
+        private final Float volume;
+        private final Integer priority;
+        private final String streamingEndpoint;
+    }
+}
@@ -0,0 +1,141 @@
+package com.langhakers.talki.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 클라이언트가 보내는 WebSocket 프레임의 수신 전용 형식.
+ * type 값에 따라 data가 바로 해당 요청 DTO로 역직렬화되므로 프레임을 한 번만 읽습니다.
+ * 알 수 없는 type(기존 채팅 메시지)은 data를 건너뛰고 최상위의 senderId/senderName/content만 읽습니다.
+ */
+@JsonDeserialize(using = TALKiInboundMessageDTO.Deserializer.class)
+public class TALKiInboundMessageDTO {
+
+    // type -> data 요청 DTO
+    private static final Map<String, Class<?>> DATA_TYPES = Map.of(
+            "JOIN_SESSION", TALKiJoinSessionDTO.class,
+            "CREATE_BRANCH", TALKiCreateBranchDTO.class,
+            "CHARACTER_MESSAGE", TALKiCharacterMessageDTO.class,
+            "CONFIGURE_TTS", TALKiTTSConfigDTO.class
+    );
+
+    private String type;
+    
+    private Object data;
+    
+    // 기존 채팅 메시지 필드
+    private String senderId;
+    
+    private String senderName;
+    
+    private String content;
+    
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public Object getData() {
+        return data;
+    }
+    
+    public void setData(Object data) {
+        this.data = data;
+    }
+    
+    public String getSenderId() {
+        return senderId;
+    }
+    
+    public void setSenderId(String senderId) {
+        this.senderId = senderId;
+    }
+    
+    public String getSenderName() {
+        return senderName;
+    }
+    
+    public void setSenderName(String senderName) {
+        this.senderName = senderName;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    /**
+     * 필드를 한 번씩 읽으며 type이 먼저 오면 data를 바로 요청 DTO로 읽습니다.
+     * data가 type보다 먼저 오는 경우에만 data를 버퍼에 복사해 두었다가 마지막에 읽습니다.
+     * (@JsonTypeInfo EXTERNAL_PROPERTY는 순서와 관계없이 항상 버퍼에 복사하므로 쓰지 않음)
+     */
+    static final class Deserializer extends StdDeserializer<TALKiInboundMessageDTO> {
+
+        Deserializer() {
+            super(TALKiInboundMessageDTO.class);
+        }
+
+        @Override
+        public TALKiInboundMessageDTO deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                return (TALKiInboundMessageDTO) ctxt.handleUnexpectedToken(TALKiInboundMessageDTO.class, p);
+            }
+            TALKiInboundMessageDTO message = new TALKiInboundMessageDTO();
+            TokenBuffer bufferedData = null;
+            for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                switch (field) {
+                    case "type" -> message.type = readString(p, ctxt);
+                    case "senderId" -> message.senderId = readString(p, ctxt);
+                    case "senderName" -> message.senderName = readString(p, ctxt);
+                    case "content" -> message.content = readString(p, ctxt);
+                    case "data" -> {
+                        if (token == JsonToken.VALUE_NULL) {
+                            continue;
+                        }
+                        if (message.type == null) {
+                            bufferedData = ctxt.bufferAsCopyOfValue(p);
+                        } else {
+                            message.data = readData(message.type, p, ctxt);
+                        }
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            if (bufferedData != null && message.type != null) {
+                try (JsonParser dataParser = bufferedData.asParserOnFirstToken()) {
+                    message.data = readData(message.type, dataParser, ctxt);
+                }
+            }
+            return message;
+        }
+
+        // 알 수 없는 type의 data는 읽지 않음
+        private static Object readData(String type, JsonParser p, DeserializationContext ctxt) throws IOException {
+            Class<?> dataType = DATA_TYPES.get(type);
+            if (dataType == null) {
+                p.skipChildren();
+                return null;
+            }
+            return ctxt.readValue(p, dataType);
+        }
+
+        private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class);
+        }
+    }
+}
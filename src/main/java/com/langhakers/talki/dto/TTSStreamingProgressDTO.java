@@ -0,0 +1,23 @@
+package com.langhakers.talki.dto;
+
+import com.langhakers.talki.entity.StreamingStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * TTS 스트리밍 세션의 실시간 진행 상황 (메모리 기준)
+ */
+@Getter
+@Builder
+public class TTSStreamingProgressDTO {
+    private String streamingSessionId;
+    private StreamingStatus status;
+    private Integer chunkCount;
+    private Long totalBytes;
+    private Long durationMs;
+    private LocalDateTime updatedAt;
+    // DB에 아직 반영되지 않은 변경이 있는지 여부
+    private boolean pendingFlush;
+}
@@ -0,0 +1,24 @@
+package com.langhakers.talki.dto;
+
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.TTSProvider;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * TTS 제공업체 클라이언트에 전달되는 합성 요청.
+ * 트랜잭션 밖(스트리밍 스레드)에서 사용되므로 엔티티 대신 필요한 값만 복사해 둡니다.
+ */
+@Getter
+@Builder
+public class TTSSynthesisRequest {
+    private TTSProvider provider;
+    private String text;
+    private String voiceId;
+    private String language;
+    private AudioFormat audioFormat;
+    private Integer sampleRate;
+    private Float speed;
+    private Float pitch;
+    private Float volume;
+}
@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "ai_conversation")
+@Table(name = "ai_conversation", indexes = {
+        @Index(name = "idx_ai_conversation_session_created", columnList = "session_id, created_at"),
+        @Index(name = "idx_ai_conversation_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_ai_conversation_type_created", columnList = "message_type, created_at")
+})
 public class AIConversation {
 
     @Id
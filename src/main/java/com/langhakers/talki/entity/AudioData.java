@@ -8,7 +8,10 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "audio_data")
+@Table(name = "audio_data", indexes = {
+        @Index(name = "idx_audio_data_content_hash", columnList = "contentHash"),
+        @Index(name = "idx_audio_data_file_name", columnList = "fileName")
+})
 public class AudioData {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,5 +28,14 @@ public class AudioData {
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
+
+    // 파일 내용의 SHA-256 (hex)
+    @Column(length = 64)
+    private String contentHash;
+
+    private Long sizeBytes;
+
+    // TTS 캐시에서 파일이 제거된 시각 (파일이 다시 저장되면 null로 되돌림)
+    private LocalDateTime evictedAt;
 }
 
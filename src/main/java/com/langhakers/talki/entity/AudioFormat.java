@@ -1,7 +1,59 @@
 package com.langhakers.talki.entity;
 
+import java.util.Locale;
+
 public enum AudioFormat {
-    MP3,        // MP3 format
-    WAV,        // WAV format
-    PCM         // Raw PCM format
+    MP3("audio/mpeg", "mp3"),        // MP3 format
+    WAV("audio/wav", "wav"),         // WAV format
+    PCM("audio/L16", "pcm");         // Raw PCM format (16-bit linear)
+
+    private final String mimeType;
+    private final String extension;
+
+    AudioFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 파일 이름의 확장자로 오디오 포맷을 찾습니다. 알 수 없는 확장자면 null을 반환합니다.
+     */
+    public static AudioFormat fromFilename(String filename) {
+        int dotIndex = filename.lastIndexOf('.');
+        if (dotIndex < 0) {
+            return null;
+        }
+        String ext = filename.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+        for (AudioFormat format : values()) {
+            if (format.extension.equals(ext)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * MIME 타입으로 오디오 포맷을 찾습니다 (파라미터는 무시). 알 수 없으면 null을 반환합니다.
+     */
+    public static AudioFormat fromMimeType(String mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+        int paramIndex = mimeType.indexOf(';');
+        String type = (paramIndex >= 0 ? mimeType.substring(0, paramIndex) : mimeType).trim();
+        for (AudioFormat format : values()) {
+            if (format.mimeType.equalsIgnoreCase(type)) {
+                return format;
+            }
+        }
+        return null;
+    }
 }
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "chat_message")
+@Table(name = "chat_message", indexes = {
+        @Index(name = "idx_chat_message_room_ts_id", columnList = "roomId, timestamp, id"),
+        @Index(name = "uk_chat_message_message_key", columnList = "messageKey", unique = true),
+        @Index(name = "idx_chat_message_room_sequence", columnList = "roomId, sequenceNumber")
+})
 public class ChatMessage {
 
     @Id
@@ -31,6 +35,13 @@ public class ChatMessage {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
+    // write-behind 저장 시 클라이언트에 먼저 알려준 메시지 ID (IDENTITY id는 INSERT 후에야 정해지므로 별도 보관)
+    @Column(length = 36)
+    private String messageKey;
+
+    // 브랜치 메시지 순번 (BranchSequenceAllocator가 재시작 후 이어서 발급할 수 있도록 저장, 기존 채팅 메시지는 null)
+    private Integer sequenceNumber;
+
     public ChatMessage(String roomId, String senderId, String senderName, String content) {
         this.roomId = roomId;
         this.senderId = senderId;
@@ -8,7 +8,9 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "tts_streaming_session")
+@Table(name = "tts_streaming_session", indexes = {
+        @Index(name = "idx_tts_streaming_session_status_started", columnList = "status, startedAt")
+})
 public class TTSStreamingSession {
     
     @Id
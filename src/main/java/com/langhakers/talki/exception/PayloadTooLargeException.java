@@ -0,0 +1,12 @@
+package com.langhakers.talki.exception;
+
+/**
+ * 업로드 본문이 허용 크기를 넘었을 때 발생하는 예외.
+ * REST에서는 413으로 변환됩니다.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
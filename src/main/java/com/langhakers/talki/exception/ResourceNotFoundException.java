@@ -0,0 +1,12 @@
+package com.langhakers.talki.exception;
+
+/**
+ * 요청한 리소스가 없을 때 발생하는 예외.
+ * REST에서는 404, gRPC에서는 NOT_FOUND로 변환됩니다.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
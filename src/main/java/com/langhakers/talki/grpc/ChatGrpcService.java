@@ -2,21 +2,32 @@ package com.langhakers.talki.grpc;
 
 import com.langhakers.talki.dto.ChatMessageMapper;
 import com.langhakers.talki.dto.MessageDTO;
+import com.langhakers.talki.dto.MessagePageDTO;
+import com.langhakers.talki.exception.ResourceNotFoundException;
 import com.langhakers.talki.service.ChatService;
 import com.langhakers.talki.websocket.grpc.proto.ChatServiceGrpc;
 import com.langhakers.talki.websocket.grpc.proto.GrpcChatMessage;
 import com.langhakers.talki.websocket.grpc.proto.ChatMessageRequest;
 import com.langhakers.talki.websocket.grpc.proto.ChatMessageResponse;
 import com.langhakers.talki.websocket.grpc.proto.ChatMessageIdRequest;
+import com.langhakers.talki.websocket.grpc.proto.ChatHistoryRequest;
 import com.langhakers.talki.websocket.grpc.proto.ChatMessageList;
+import com.langhakers.talki.websocket.grpc.proto.ChatMessagePage;
+import com.langhakers.talki.websocket.grpc.proto.ChatMessagePageRequest;
 import com.langhakers.talki.websocket.grpc.proto.DeleteChatMessageResponse;
 import com.langhakers.talki.websocket.grpc.proto.Empty;
 
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,13 +38,23 @@ import java.util.stream.Collectors;
 @GrpcService
 public class ChatGrpcService extends ChatServiceGrpc.ChatServiceImplBase {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatGrpcService.class);
+
     private final ChatService chatService;
     private final ChatMessageMapper chatMessageMapper;
+    private final ChatRoomHub chatRoomHub;
+    private final boolean persistChatStream;
+    private final int exportChunkSize;
 
     @Autowired
-    public ChatGrpcService(ChatService chatService, ChatMessageMapper chatMessageMapper) {
+    public ChatGrpcService(ChatService chatService, ChatMessageMapper chatMessageMapper, ChatRoomHub chatRoomHub,
+                           @Value("${talki.grpc.chat.persist:false}") boolean persistChatStream,
+                           @Value("${talki.grpc.chat.export-chunk-size:500}") int exportChunkSize) {
         this.chatService = chatService;
         this.chatMessageMapper = chatMessageMapper;
+        this.chatRoomHub = chatRoomHub;
+        this.persistChatStream = persistChatStream;
+        this.exportChunkSize = exportChunkSize;
     }
 
     /**
@@ -97,6 +118,52 @@ public class ChatGrpcService extends ChatServiceGrpc.ChatServiceImplBase {
         }
     }
 
+    /**
+     * 특정 방의 채팅 기록을 키셋 커서로 한 페이지씩 조회합니다. 0인 커서 필드는 지정되지 않은 것으로 봅니다.
+     */
+    @Override
+    public void getChatMessagePage(ChatMessagePageRequest request, StreamObserver<ChatMessagePage> responseObserver) {
+        try {
+            MessagePageDTO page = chatService.getMessagePage(
+                    request.getRoomId(),
+                    request.getAfterId() > 0 ? request.getAfterId() : null,
+                    request.getBeforeId() > 0 ? request.getBeforeId() : null,
+                    request.getAfterTimestamp() > 0 ? chatMessageMapper.map(request.getAfterTimestamp()) : null,
+                    request.getBeforeTimestamp() > 0 ? chatMessageMapper.map(request.getBeforeTimestamp()) : null,
+                    request.getLimit());
+
+            ChatMessagePage.Builder builder = ChatMessagePage.newBuilder().setHasMore(page.isHasMore());
+            page.getMessages().forEach(dto -> builder.addChatMessages(convertToGrpcResponse(dto)));
+            if (page.getOldestId() != null) builder.setOldestId(page.getOldestId());
+            if (page.getNewestId() != null) builder.setNewestId(page.getNewestId());
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        } catch (ResourceNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(
+                Status.INTERNAL.withDescription("Failed to get chat message page: " + e.getMessage()).asRuntimeException()
+            );
+        }
+    }
+
+    /**
+     * 방의 전체 채팅 기록을 오래된 순으로 스트리밍합니다.
+     * 클라이언트가 받을 준비가 되었을 때(onReady)만 다음 청크를 DB에서 읽으므로
+     * 방 크기와 관계없이 메모리 사용량은 청크 하나 분량으로 유지됩니다.
+     */
+    @Override
+    public void streamChatHistory(ChatHistoryRequest request, StreamObserver<ChatMessageResponse> responseObserver) {
+        ServerCallStreamObserver<ChatMessageResponse> call =
+                (ServerCallStreamObserver<ChatMessageResponse>) responseObserver;
+        HistoryExport export = new HistoryExport(request.getRoomId(), call);
+        call.setOnCancelHandler(export::cancel);
+        call.setOnReadyHandler(export::pump);
+    }
+
     /**
      * ID로 특정 채팅 메시지를 삭제합니다.
      */
@@ -147,39 +214,55 @@ public class ChatGrpcService extends ChatServiceGrpc.ChatServiceImplBase {
 
     /**
      * 양방향 스트리밍을 통해 실시간 채팅을 처리합니다.
-     * 클라이언트가 메시지를 보낼 때마다 서버는 해당 메시지를 다시 클라이언트에게 보내는 '에코' 로직을 구현합니다.
-     * 실제 애플리케이션에서는 특정 방의 모든 참여자에게 브로드캐스팅하는 로직이 필요합니다.
+     * 스트림은 메시지를 보낸 방에 자동으로 참여하고, 수신된 메시지는 같은 방의 모든 스트림(보낸 쪽 포함)에
+     * 흐름 제어를 지키며 전달됩니다. talki.grpc.chat.persist=true이면 메시지를 배치로 저장합니다.
      */
     @Override
     public StreamObserver<GrpcChatMessage> chat(StreamObserver<GrpcChatMessage> responseObserver) {
+        ChatRoomHub.Subscriber subscriber =
+                chatRoomHub.subscribe((ServerCallStreamObserver<GrpcChatMessage>) responseObserver);
         return new StreamObserver<>() {
             @Override
             public void onNext(GrpcChatMessage message) {
-                // 클라이언트로부터 메시지 수신
-                System.out.println("gRPC Chat Stream | Received: [" + message.getSenderName() + "] " + message.getContent());
-
-                // TODO: 수신된 메시지를 DB에 저장하는 로직 (chatService.saveMessage) 추가 가능
+                if (message.getRoomId().isEmpty()) {
+                    logger.warn("gRPC Chat Stream | roomId가 없는 메시지 무시: sender={}", message.getSenderId());
+                    return;
+                }
+                GrpcChatMessage stamped = message.getTimestamp() > 0
+                        ? message
+                        : message.toBuilder().setTimestamp(System.currentTimeMillis()).build();
 
-                // TODO: 같은 채팅방의 다른 클라이언트들에게 메시지를 브로드캐스팅하는 로직 필요
-
-                // 현재는 받은 메시지를 그대로 다시 보내는 에코(Echo) 기능만 수행
-                responseObserver.onNext(message);
+                chatRoomHub.join(stamped.getRoomId(), subscriber);
+                if (persistChatStream) {
+                    chatService.enqueueMessage(toMessageDTO(stamped));
+                }
+                chatRoomHub.broadcast(stamped.getRoomId(), stamped);
             }
 
             @Override
             public void onError(Throwable t) {
-                System.err.println("gRPC Chat Stream | Error: " + t.getMessage());
+                logger.debug("gRPC Chat Stream | Error: {}", t.getMessage());
+                chatRoomHub.unsubscribe(subscriber);
             }
 
             @Override
             public void onCompleted() {
                 // 클라이언트가 스트림 전송을 완료했을 때 호출됨
-                System.out.println("gRPC Chat Stream | Client completed.");
-                responseObserver.onCompleted();
+                chatRoomHub.complete(subscriber);
             }
         };
     }
 
+    private MessageDTO toMessageDTO(GrpcChatMessage message) {
+        MessageDTO dto = new MessageDTO();
+        dto.setRoomId(message.getRoomId());
+        dto.setSenderId(message.getSenderId());
+        dto.setSenderName(message.getSenderName());
+        dto.setContent(message.getContent());
+        dto.setTimestamp(chatMessageMapper.map(message.getTimestamp()));
+        return dto;
+    }
+
     /**
      * MessageDTO(Java DTO)를 ChatMessageResponse(gRPC Message)로 변환하는 헬퍼 메서드입니다.
      * @param dto 변환할 DTO 객체
@@ -188,7 +271,7 @@ public class ChatGrpcService extends ChatServiceGrpc.ChatServiceImplBase {
     private ChatMessageResponse convertToGrpcResponse(MessageDTO dto) {
         ChatMessageResponse.Builder builder = ChatMessageResponse.newBuilder();
         
-        // ChatMessageResponse.proto에는 id 필드가 없으므로 설정하지 않습니다.
+        if (dto.getId() != null) builder.setId(dto.getId());
         if (dto.getRoomId() != null) builder.setRoomId(dto.getRoomId());
         if (dto.getSenderId() != null) builder.setSenderId(dto.getSenderId());
         if (dto.getSenderName() != null) builder.setSenderName(dto.getSenderName());
@@ -200,4 +283,58 @@ public class ChatGrpcService extends ChatServiceGrpc.ChatServiceImplBase {
         
         return builder.build();
     }
+
+    /**
+     * 하나의 기록 내보내기 스트림 상태. (timestamp, id) 커서를 따라 청크 단위로 읽어 전송합니다.
+     */
+    private final class HistoryExport {
+        private final String roomId;
+        private final ServerCallStreamObserver<ChatMessageResponse> call;
+        private final ArrayDeque<MessageDTO> buffer = new ArrayDeque<>();
+        private LocalDateTime lastTimestamp;
+        private Long lastId;
+        private boolean exhausted;
+        private boolean done;
+
+        private HistoryExport(String roomId, ServerCallStreamObserver<ChatMessageResponse> call) {
+            this.roomId = roomId;
+            this.call = call;
+        }
+
+        private synchronized void pump() {
+            try {
+                while (!done && call.isReady()) {
+                    if (buffer.isEmpty()) {
+                        if (exhausted) {
+                            done = true;
+                            call.onCompleted();
+                            return;
+                        }
+                        List<MessageDTO> chunk = chatService.getMessagesAfter(roomId, lastTimestamp, lastId, exportChunkSize);
+                        exhausted = chunk.size() < exportChunkSize;
+                        buffer.addAll(chunk);
+                        continue;
+                    }
+                    MessageDTO dto = buffer.pollFirst();
+                    lastTimestamp = dto.getTimestamp();
+                    lastId = dto.getId();
+                    call.onNext(convertToGrpcResponse(dto));
+                }
+            } catch (Exception e) {
+                done = true;
+                buffer.clear();
+                if (call.isCancelled()) {
+                    return;
+                }
+                logger.error("채팅 기록 스트리밍 실패: roomId={}", roomId, e);
+                call.onError(Status.INTERNAL.withDescription("Failed to stream chat history: " + e.getMessage())
+                        .asRuntimeException());
+            }
+        }
+
+        private synchronized void cancel() {
+            done = true;
+            buffer.clear();
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package com.langhakers.talki.grpc;
+
+import com.langhakers.talki.websocket.grpc.proto.GrpcChatMessage;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * gRPC Chat 양방향 스트림의 채팅방 허브.
+ * 구독자는 roomId별로 관리되며, 방으로 들어온 메시지는 방의 모든 스트림에 전달됩니다.
+ * 각 스트림은 gRPC 흐름 제어(isReady/onReady)를 따르고, 전송 대기 메시지는 구독자별로
+ * 최대 buffer-size까지만 보관합니다. 초과하면 가장 오래된 메시지를 버립니다.
+ */
+@Component
+public class ChatRoomHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoomHub.class);
+
+    private final int bufferSize;
+    // roomId -> 구독자 목록
+    private final Map<String, Set<Subscriber>> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter deliveredCounter;
+    private final Counter droppedCounter;
+
+    @Autowired
+    public ChatRoomHub(MeterRegistry meterRegistry,
+                       @Value("${talki.grpc.chat.buffer-size:128}") int bufferSize) {
+        this.bufferSize = bufferSize;
+        Gauge.builder("talki.grpc.chat.rooms", rooms, Map::size)
+                .description("구독자가 있는 gRPC 채팅방 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.grpc.chat.subscribers", subscriberCount, AtomicInteger::get)
+                .description("연결된 gRPC 채팅 스트림 수")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("talki.grpc.chat.delivered")
+                .description("gRPC 채팅 스트림으로 전달된 메시지 수")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("talki.grpc.chat.dropped")
+                .description("느린 구독자의 버퍼 초과로 버려진 메시지 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 응답 스트림을 구독자로 등록합니다. onReady 핸들러는 호출 메서드 안에서 등록되어야 하므로
+     * 서비스의 chat() 호출 시점에 바로 호출해야 합니다.
+     */
+    public Subscriber subscribe(ServerCallStreamObserver<GrpcChatMessage> observer) {
+        Subscriber subscriber = new Subscriber(observer);
+        observer.setOnReadyHandler(subscriber::drain);
+        observer.setOnCancelHandler(() -> unsubscribe(subscriber));
+        subscriberCount.incrementAndGet();
+        return subscriber;
+    }
+
+    /**
+     * 구독자를 방에 참여시킵니다. 이미 참여한 방이면 아무 일도 하지 않습니다.
+     */
+    public void join(String roomId, Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.closed || !subscriber.joinedRooms.add(roomId)) {
+                return;
+            }
+            rooms.compute(roomId, (key, members) -> {
+                Set<Subscriber> result = members != null ? members : ConcurrentHashMap.newKeySet();
+                result.add(subscriber);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * 구독자를 모든 방에서 제거합니다. 여러 번 호출해도 안전합니다.
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            subscriber.closed = true;
+            subscriber.pending.clear();
+        }
+        for (String roomId : subscriber.joinedRooms) {
+            rooms.computeIfPresent(roomId, (key, members) -> {
+                members.remove(subscriber);
+                return members.isEmpty() ? null : members;
+            });
+        }
+        subscriberCount.decrementAndGet();
+    }
+
+    /**
+     * 클라이언트가 전송을 마쳤을 때 구독을 해제하고 응답 스트림을 정상 종료합니다.
+     */
+    public void complete(Subscriber subscriber) {
+        unsubscribe(subscriber);
+        synchronized (subscriber) {
+            try {
+                subscriber.observer.onCompleted();
+            } catch (RuntimeException e) {
+                logger.debug("gRPC 채팅 스트림 종료 실패: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 방의 모든 구독자에게 메시지를 전달합니다.
+     * @return 메시지를 받은 구독자 수 (전송 대기 포함)
+     */
+    public int broadcast(String roomId, GrpcChatMessage message) {
+        Set<Subscriber> members = rooms.get(roomId);
+        if (members == null) {
+            return 0;
+        }
+        int accepted = 0;
+        for (Subscriber subscriber : members) {
+            if (subscriber.offer(message)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    public int getSubscriberCount(String roomId) {
+        Set<Subscriber> members = rooms.get(roomId);
+        return members != null ? members.size() : 0;
+    }
+
+    /**
+     * 하나의 응답 스트림. StreamObserver는 스레드 안전하지 않으므로 onNext는 모니터 안에서만 호출합니다.
+     */
+    public final class Subscriber {
+        private final ServerCallStreamObserver<GrpcChatMessage> observer;
+        private final ArrayDeque<GrpcChatMessage> pending = new ArrayDeque<>();
+        private final Set<String> joinedRooms = ConcurrentHashMap.newKeySet();
+        private boolean closed;
+
+        private Subscriber(ServerCallStreamObserver<GrpcChatMessage> observer) {
+            this.observer = observer;
+        }
+
+        private synchronized boolean offer(GrpcChatMessage message) {
+            if (closed) {
+                return false;
+            }
+            pending.addLast(message);
+            if (pending.size() > bufferSize) {
+                pending.pollFirst();
+                droppedCounter.increment();
+            }
+            drain();
+            return true;
+        }
+
+        private synchronized void drain() {
+            if (closed) {
+                return;
+            }
+            try {
+                while (!pending.isEmpty() && observer.isReady()) {
+                    observer.onNext(pending.pollFirst());
+                    deliveredCounter.increment();
+                }
+            } catch (RuntimeException e) {
+                // 스트림이 이미 취소/종료된 경우
+                logger.debug("gRPC 채팅 스트림 전송 실패: {}", e.getMessage());
+                pending.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.langhakers.talki.repository;
+
+import com.langhakers.talki.entity.AIConversation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ai_conversation 테이블에 대한 JDBC 배치 INSERT.
+ * IDENTITY 전략에서는 Hibernate 배치가 동작하지 않으므로 배치 수집 API는 이 저장소를 사용하며,
+ * 생성된 키를 각 엔티티의 id에 채워 돌려줍니다.
+ */
+@Repository
+public class AIConversationBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ai_conversation (session_id, user_id, message_type, content, role, client_timestamp, " +
+            "server_timestamp, created_at, metadata) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public AIConversationBatchRepository(JdbcTemplate jdbcTemplate,
+                                         @Value("${talki.ai-conversation.batch.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 모든 대화를 한 트랜잭션에서 저장합니다. 하나라도 실패하면 전체가 롤백됩니다.
+     */
+    @Transactional
+    public void insertAll(List<AIConversation> conversations) {
+        for (int from = 0; from < conversations.size(); from += batchSize) {
+            List<AIConversation> chunk = conversations.subList(from, Math.min(from + batchSize, conversations.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            AIConversation conversation = chunk.get(i);
+                            ps.setString(1, conversation.getSessionId());
+                            ps.setString(2, conversation.getUserId());
+                            ps.setString(3, conversation.getMessageType());
+                            ps.setString(4, conversation.getContent());
+                            ps.setString(5, conversation.getRole());
+                            setLong(ps, 6, conversation.getClientTimestamp());
+                            setLong(ps, 7, conversation.getServerTimestamp());
+                            ps.setTimestamp(8, Timestamp.valueOf(conversation.getCreatedAt()));
+                            ps.setString(9, conversation.getMetadata());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size() && i < keys.size(); i++) {
+                Object key = keys.get(i).values().stream().findFirst().orElse(null);
+                if (key instanceof Number number) {
+                    chunk.get(i).setId(number.longValue());
+                }
+            }
+        }
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.langhakers.talki.repository;
 
 import com.langhakers.talki.entity.AIConversation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AIConversationRepository extends JpaRepository<AIConversation, Long> {
@@ -26,6 +31,49 @@ public interface AIConversationRepository extends JpaRepository<AIConversation,
     @Query("SELECT a FROM AIConversation a WHERE a.messageType IN :messageTypes ORDER BY a.createdAt DESC")
     List<AIConversation> findByMessageTypeIn(@Param("messageTypes") List<String> messageTypes);
 
+    // ===== 키셋 페이지 (createdAt, id) =====
+    // 세션: 오래된 순, 사용자/메시지 유형: 최신 순
+
+    @Query("SELECT a FROM AIConversation a WHERE a.sessionId = :sessionId ORDER BY a.createdAt ASC, a.id ASC")
+    List<AIConversation> findSessionFirstPage(@Param("sessionId") String sessionId, Pageable pageable);
+
+    @Query("SELECT a FROM AIConversation a WHERE a.sessionId = :sessionId AND " +
+           "(a.createdAt > :createdAt OR (a.createdAt = :createdAt AND a.id > :id)) ORDER BY a.createdAt ASC, a.id ASC")
+    List<AIConversation> findSessionPageAfter(@Param("sessionId") String sessionId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+
+    @Query("SELECT a FROM AIConversation a WHERE a.userId = :userId ORDER BY a.createdAt DESC, a.id DESC")
+    List<AIConversation> findUserFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT a FROM AIConversation a WHERE a.userId = :userId AND " +
+           "(a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) ORDER BY a.createdAt DESC, a.id DESC")
+    List<AIConversation> findUserPageBefore(@Param("userId") String userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    // 유형 하나씩 조회해 (message_type, created_at) 인덱스를 역순으로 따라가도록 함 (IN + ORDER BY는 filesort)
+    @Query("SELECT a FROM AIConversation a WHERE a.messageType = :messageType ORDER BY a.createdAt DESC, a.id DESC")
+    List<AIConversation> findMessageTypeFirstPage(@Param("messageType") String messageType, Pageable pageable);
+
+    @Query("SELECT a FROM AIConversation a WHERE a.messageType = :messageType AND " +
+           "(a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) ORDER BY a.createdAt DESC, a.id DESC")
+    List<AIConversation> findMessageTypePageBefore(@Param("messageType") String messageType,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    // 내보내기용 전방향 커서 (MySQL은 fetch size가 Integer.MIN_VALUE일 때 결과를 한 행씩 스트리밍)
+    // 트랜잭션 안에서 소비하고 반드시 닫아야 함
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AIConversation a WHERE a.sessionId = :sessionId ORDER BY a.createdAt ASC, a.id ASC")
+    Stream<AIConversation> streamBySessionId(@Param("sessionId") String sessionId);
+
     long countBySessionId(String sessionId);
 
     void deleteBySessionId(String sessionId);
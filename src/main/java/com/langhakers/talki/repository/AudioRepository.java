@@ -2,8 +2,27 @@ package com.langhakers.talki.repository;
 
 import com.langhakers.talki.entity.AudioData;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
 
 public interface AudioRepository extends JpaRepository<AudioData, Long> {
+    Optional<AudioData> findFirstByFileName(String fileName);
+
+    // 파일이 삭제된 행을 표시 (발화 등에서 참조 중일 수 있으므로 행은 지우지 않음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE AudioData a SET a.evictedAt = :evictedAt WHERE a.fileName IN :fileNames")
+    int markEvicted(@Param("fileNames") Collection<String> fileNames, @Param("evictedAt") LocalDateTime evictedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AudioData a SET a.evictedAt = NULL WHERE a.id = :id AND a.evictedAt IS NOT NULL")
+    int clearEvicted(@Param("id") Long id);
 }
 
@@ -20,6 +20,6 @@ public interface BranchUtteranceRepository extends JpaRepository<BranchUtterance
     
     long countByBranch(SessionBranch branch);
     
-    @Query("SELECT MAX(bu.sequenceOrder) FROM BranchUtterance bu WHERE bu.branch.id = :branchId")
+    @Query("SELECT MAX(bu.sequenceNumber) FROM BranchUtterance bu WHERE bu.branch.branchId = :branchId")
     Optional<Integer> findMaxSequenceNumberByBranchId(@Param("branchId") String branchId);
 }
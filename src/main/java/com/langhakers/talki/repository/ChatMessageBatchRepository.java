@@ -0,0 +1,45 @@
+package com.langhakers.talki.repository;
+
+import com.langhakers.talki.entity.ChatMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * chat_message 테이블에 대한 JDBC 배치 INSERT.
+ * IDENTITY 전략에서는 Hibernate 배치가 동작하지 않으므로 대량 저장은 이 저장소를 사용합니다.
+ */
+@Repository
+public class ChatMessageBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_message (roomId, senderId, senderName, content, timestamp, messageKey, sequenceNumber) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChatMessageBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public int[][] insertAll(List<ChatMessage> messages) {
+        return jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setString(1, message.getRoomId());
+            ps.setString(2, message.getSenderId());
+            ps.setString(3, message.getSenderName());
+            ps.setString(4, message.getContent());
+            ps.setTimestamp(5, Timestamp.valueOf(message.getTimestamp()));
+            ps.setString(6, message.getMessageKey());
+            if (message.getSequenceNumber() != null) {
+                ps.setInt(7, message.getSequenceNumber());
+            } else {
+                ps.setNull(7, Types.INTEGER);
+            }
+        });
+    }
+}
@@ -1,10 +1,45 @@
 package com.langhakers.talki.repository;
 
 import com.langhakers.talki.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findByRoomIdOrderByTimestampAsc(String roomId);
-}
 
+    // 키셋 페이지네이션: (timestamp, id) 커서 이후 메시지를 오래된 순으로 조회 (roomId, timestamp, id 인덱스 사용)
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId " +
+           "AND (m.timestamp > :timestamp OR (m.timestamp = :timestamp AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findPageAfter(@Param("roomId") String roomId,
+                                    @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    // 키셋 페이지네이션: (timestamp, id) 커서 이전 메시지를 최신 순으로 조회
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId " +
+           "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findPageBefore(@Param("roomId") String roomId,
+                                     @Param("timestamp") LocalDateTime timestamp,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // 처음부터 오래된 순으로 조회 (기록 내보내기의 첫 청크)
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findEarliestPage(@Param("roomId") String roomId, Pageable pageable);
+
+    // 커서가 없을 때: 가장 최근 메시지부터 최신 순으로 조회
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findLatestPage(@Param("roomId") String roomId, Pageable pageable);
+
+    // 브랜치 순번 초기화용 (roomId, sequenceNumber 인덱스 사용)
+    @Query("SELECT MAX(m.sequenceNumber) FROM ChatMessage m WHERE m.roomId = :roomId")
+    Optional<Integer> findMaxSequenceNumberByRoomId(@Param("roomId") String roomId);
+}
@@ -26,6 +26,11 @@ public interface TTSRoutingConfigRepository extends JpaRepository<TTSRoutingConf
     List<TTSRoutingConfig> findActiveConfigsBySessionAndParticipant(@Param("session") ConversationSession session, 
                                                                    @Param("participantId") String participantId);
     
+    // 세션 조회 없이 sessionId로 바로 조회 (라우팅 캐시 적재용)
+    @Query("SELECT trc FROM TTSRoutingConfig trc WHERE trc.session.sessionId = :sessionId AND trc.participantId = :participantId AND trc.isActive = true ORDER BY trc.priority ASC, trc.id ASC")
+    List<TTSRoutingConfig> findActiveConfigsBySessionIdAndParticipant(@Param("sessionId") String sessionId,
+                                                                     @Param("participantId") String participantId);
+    
     @Query("SELECT trc FROM TTSRoutingConfig trc WHERE trc.session = :session AND trc.isActive = true ORDER BY trc.priority ASC")
     List<TTSRoutingConfig> findActiveConfigsBySession(@Param("session") ConversationSession session);
     
@@ -3,12 +3,16 @@ package com.langhakers.talki.repository;
 import com.langhakers.talki.entity.TTSStreamingSession;
 import com.langhakers.talki.entity.TTSRoutingConfig;
 import com.langhakers.talki.entity.StreamingStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,8 +29,70 @@ public interface TTSStreamingSessionRepository extends JpaRepository<TTSStreamin
     List<TTSStreamingSession> findStuckSessions(@Param("status") StreamingStatus status, 
                                                @Param("before") LocalDateTime before);
     
+    // 정리 대상 세션 ID만 오래된 순서로 조회 (status, startedAt 인덱스 사용)
+    @Query("SELECT tss.streamingSessionId FROM TTSStreamingSession tss WHERE tss.status = :status AND tss.startedAt < :before " +
+           "ORDER BY tss.startedAt")
+    List<String> findStuckStreamingSessionIds(@Param("status") StreamingStatus status,
+                                              @Param("before") LocalDateTime before,
+                                              Pageable pageable);
+    
+    // 멈춘 세션을 한 번의 UPDATE로 실패 처리 (그 사이 종료된 세션은 건드리지 않음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE TTSStreamingSession tss SET tss.status = :failedStatus, tss.failedAt = :failedAt, " +
+           "tss.errorMessage = :errorMessage WHERE tss.streamingSessionId IN :streamingSessionIds AND tss.status = :status")
+    int failStuckSessions(@Param("streamingSessionIds") Collection<String> streamingSessionIds,
+                          @Param("status") StreamingStatus status,
+                          @Param("failedStatus") StreamingStatus failedStatus,
+                          @Param("failedAt") LocalDateTime failedAt,
+                          @Param("errorMessage") String errorMessage);
+    
     @Query("SELECT tss FROM TTSStreamingSession tss WHERE tss.routingConfig.session.id = :sessionId ORDER BY tss.startedAt DESC")
     List<TTSStreamingSession> findBySessionIdOrderByStartedAtDesc(@Param("sessionId") Long sessionId);
     
+    // 진행 상황만 갱신 (이미 종료된 세션은 갱신하지 않음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE TTSStreamingSession tss SET tss.chunkCount = :chunkCount, tss.totalBytes = :totalBytes, " +
+           "tss.durationMs = :durationMs WHERE tss.streamingSessionId = :streamingSessionId AND tss.status IN :activeStatuses")
+    int updateProgress(@Param("streamingSessionId") String streamingSessionId,
+                       @Param("chunkCount") Integer chunkCount,
+                       @Param("totalBytes") Long totalBytes,
+                       @Param("durationMs") Long durationMs,
+                       @Param("activeStatuses") Collection<StreamingStatus> activeStatuses);
+    
+    // 스트리밍 종료 시 진행 상황과 최종 상태를 한 번의 UPDATE로 기록
+    @Modifying
+    @Transactional
+    @Query("UPDATE TTSStreamingSession tss SET tss.status = :status, tss.chunkCount = :chunkCount, " +
+           "tss.totalBytes = :totalBytes, tss.durationMs = :durationMs, tss.completedAt = :completedAt, " +
+           "tss.failedAt = :failedAt, tss.errorMessage = :errorMessage, " +
+           "tss.audioDataId = COALESCE(:audioDataId, tss.audioDataId) WHERE tss.id = :id")
+    int finishStreaming(@Param("id") Long id,
+                        @Param("status") StreamingStatus status,
+                        @Param("chunkCount") Integer chunkCount,
+                        @Param("totalBytes") Long totalBytes,
+                        @Param("durationMs") Long durationMs,
+                        @Param("completedAt") LocalDateTime completedAt,
+                        @Param("failedAt") LocalDateTime failedAt,
+                        @Param("errorMessage") String errorMessage,
+                        @Param("audioDataId") Long audioDataId);
+    
+    // 대기 중인 세션만 시작 상태로 전환 (동시 요청 중 하나만 1을 받음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE TTSStreamingSession tss SET tss.status = :startedStatus, tss.startedAt = :startedAt " +
+           "WHERE tss.id = :id AND tss.status = :pendingStatus")
+    int claimStreaming(@Param("id") Long id,
+                       @Param("pendingStatus") StreamingStatus pendingStatus,
+                       @Param("startedStatus") StreamingStatus startedStatus,
+                       @Param("startedAt") LocalDateTime startedAt);
+    
+    // 캐시 저장이 비동기로 끝난 뒤 오디오를 연결
+    @Modifying
+    @Transactional
+    @Query("UPDATE TTSStreamingSession tss SET tss.audioDataId = :audioDataId WHERE tss.id = :id AND tss.audioDataId IS NULL")
+    int attachAudioData(@Param("id") Long id, @Param("audioDataId") Long audioDataId);
+    
     long countByRoutingConfigAndStatus(TTSRoutingConfig routingConfig, StreamingStatus status);
 }
@@ -1,15 +1,36 @@
 package com.langhakers.talki.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.langhakers.talki.dto.AIConversationBatchResultDTO;
 import com.langhakers.talki.dto.AIConversationDTO;
+import com.langhakers.talki.dto.AIConversationPageDTO;
+import com.langhakers.talki.dto.AIConversationResponseDTO;
 import com.langhakers.talki.entity.AIConversation;
+import com.langhakers.talki.exception.ResourceNotFoundException;
+import com.langhakers.talki.repository.AIConversationBatchRepository;
 import com.langhakers.talki.repository.AIConversationRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -17,6 +38,26 @@ import java.util.List;
 public class AIConversationService {
 
     private final AIConversationRepository aiConversationRepository;
+    private final AIConversationBatchRepository aiConversationBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private static final List<String> FINAL_MESSAGE_TYPES = List.of("final_user_request", "final_assistant_answer");
+    private static final Comparator<AIConversation> NEWEST_FIRST = Comparator
+            .comparing(AIConversation::getCreatedAt)
+            .thenComparing(AIConversation::getId)
+            .reversed();
+    private static final byte[] NEWLINE = {'\n'};
+
+    @Value("${talki.ai-conversation.batch.max-items:1000}")
+    private int maxBatchItems;
+
+    @Value("${talki.ai-conversation.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${talki.ai-conversation.page.max-size:200}")
+    private int maxPageSize;
 
     @Transactional
     public AIConversation saveConversation(AIConversationDTO dto) {
@@ -39,6 +80,96 @@ public class AIConversationService {
         return saved;
     }
 
+    /**
+     * 여러 대화 이벤트를 JDBC 배치 INSERT로 한 트랜잭션에 저장합니다.
+     * 필수 필드가 없는 항목은 건너뛰고 항목별 결과에 사유를 기록합니다.
+     * @throws IllegalArgumentException 항목 수가 max-items를 넘는 경우
+     */
+    public AIConversationBatchResultDTO saveConversations(List<AIConversationDTO> dtos) {
+        List<BatchItem> items = new ArrayList<>(dtos.size());
+        for (AIConversationDTO dto : dtos) {
+            items.add(new BatchItem(dto, null));
+        }
+        return saveBatch(items);
+    }
+
+    /**
+     * NDJSON 본문 (한 줄에 대화 이벤트 하나)을 읽어 배치로 저장합니다.
+     * 파싱할 수 없는 줄은 해당 항목만 실패로 기록합니다. 본문을 모두 읽은 뒤에 DB 연결을 사용합니다.
+     * @throws IllegalArgumentException 항목 수가 max-items를 넘는 경우
+     */
+    public AIConversationBatchResultDTO saveConversationsNdjson(InputStream body) throws IOException {
+        List<BatchItem> items = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (items.size() >= maxBatchItems) {
+                throw new IllegalArgumentException("배치 항목 수는 " + maxBatchItems + "개를 넘을 수 없습니다.");
+            }
+            try {
+                items.add(new BatchItem(objectMapper.readValue(line, AIConversationDTO.class), null));
+            } catch (JsonProcessingException e) {
+                items.add(new BatchItem(null, "JSON 파싱 실패: " + e.getOriginalMessage()));
+            }
+        }
+        return saveBatch(items);
+    }
+
+    private AIConversationBatchResultDTO saveBatch(List<BatchItem> items) {
+        if (items.size() > maxBatchItems) {
+            throw new IllegalArgumentException("배치 항목 수는 " + maxBatchItems + "개를 넘을 수 없습니다.");
+        }
+
+        List<AIConversationBatchResultDTO.ItemResult> results = new ArrayList<>(items.size());
+        List<AIConversation> conversations = new ArrayList<>(items.size());
+        List<AIConversationBatchResultDTO.ItemResult> pending = new ArrayList<>(items.size());
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            AIConversationDTO dto = item.dto;
+            String error = item.error;
+            if (error == null && (dto == null || dto.getType() == null || dto.getContent() == null)) {
+                error = "type과 content는 필수 필드입니다.";
+            }
+            AIConversationBatchResultDTO.ItemResult result = new AIConversationBatchResultDTO.ItemResult(i, false, null, error);
+            results.add(result);
+            if (error != null) {
+                continue;
+            }
+
+            AIConversation conversation = new AIConversation();
+            conversation.setSessionId(dto.getSessionId());
+            conversation.setUserId(dto.getUserId());
+            conversation.setMessageType(dto.getType());
+            conversation.setContent(dto.getContent());
+            conversation.setRole(dto.getRole());
+            conversation.setClientTimestamp(dto.getClientTimestamp());
+            conversation.setServerTimestamp(dto.getServerTimestamp() != null ? dto.getServerTimestamp() : nowMillis);
+            conversation.setCreatedAt(now);
+            conversation.setMetadata(dto.getMetadata());
+            conversations.add(conversation);
+            pending.add(result);
+        }
+
+        if (!conversations.isEmpty()) {
+            aiConversationBatchRepository.insertAll(conversations);
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).setSuccess(true);
+                pending.get(i).setId(conversations.get(i).getId());
+            }
+        }
+
+        int saved = conversations.size();
+        int failed = items.size() - saved;
+        log.info("AI 대화 배치 저장 완료: received={}, saved={}, failed={}", items.size(), saved, failed);
+        return new AIConversationBatchResultDTO(failed == 0, items.size(), saved, failed, results);
+    }
+
     @Transactional(readOnly = true)
     public List<AIConversation> getConversationsBySession(String sessionId) {
         log.info("세션별 대화 조회: sessionId={}", sessionId);
@@ -65,9 +196,8 @@ public class AIConversationService {
 
     @Transactional(readOnly = true)
     public List<AIConversation> getFinalMessagesOnly() {
-        List<String> finalMessageTypes = List.of("final_user_request", "final_assistant_answer");
-        log.info("최종 메시지만 조회: messageTypes={}", finalMessageTypes);
-        return aiConversationRepository.findByMessageTypeIn(finalMessageTypes);
+        log.info("최종 메시지만 조회: messageTypes={}", FINAL_MESSAGE_TYPES);
+        return aiConversationRepository.findByMessageTypeIn(FINAL_MESSAGE_TYPES);
     }
 
     @Transactional(readOnly = true)
@@ -76,10 +206,154 @@ public class AIConversationService {
         return aiConversationRepository.countBySessionId(sessionId);
     }
 
+    // ===== 키셋 페이지 =====
+
+    /**
+     * 세션 대화를 오래된 순으로 페이지 조회합니다. 다음 페이지는 afterId=nextCursor.
+     */
+    @Transactional(readOnly = true)
+    public AIConversationPageDTO getSessionPage(String sessionId, Long afterId, Integer limit) {
+        int pageSize = pageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<AIConversation> rows;
+        if (afterId != null) {
+            AIConversation anchor = findAnchor(afterId);
+            if (!sessionId.equals(anchor.getSessionId())) {
+                throw new IllegalArgumentException("Conversation " + afterId + " does not belong to session " + sessionId);
+            }
+            rows = aiConversationRepository.findSessionPageAfter(sessionId, anchor.getCreatedAt(), anchor.getId(), pageRequest);
+        } else {
+            rows = aiConversationRepository.findSessionFirstPage(sessionId, pageRequest);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * 사용자 대화를 최신 순으로 페이지 조회합니다. 다음 페이지는 beforeId=nextCursor.
+     */
+    @Transactional(readOnly = true)
+    public AIConversationPageDTO getUserPage(String userId, Long beforeId, Integer limit) {
+        int pageSize = pageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<AIConversation> rows;
+        if (beforeId != null) {
+            AIConversation anchor = findAnchor(beforeId);
+            if (!userId.equals(anchor.getUserId())) {
+                throw new IllegalArgumentException("Conversation " + beforeId + " does not belong to user " + userId);
+            }
+            rows = aiConversationRepository.findUserPageBefore(userId, anchor.getCreatedAt(), anchor.getId(), pageRequest);
+        } else {
+            rows = aiConversationRepository.findUserFirstPage(userId, pageRequest);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * 최종 메시지(final_user_request, final_assistant_answer)를 최신 순으로 페이지 조회합니다.
+     */
+    @Transactional(readOnly = true)
+    public AIConversationPageDTO getFinalMessagesPage(Long beforeId, Integer limit) {
+        int pageSize = pageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        AIConversation anchor = null;
+        if (beforeId != null) {
+            anchor = findAnchor(beforeId);
+            if (!FINAL_MESSAGE_TYPES.contains(anchor.getMessageType())) {
+                throw new IllegalArgumentException("Conversation " + beforeId + " is not a final message");
+            }
+        }
+        // 유형별로 pageSize+1건씩 읽어 (createdAt, id) 내림차순으로 병합
+        List<AIConversation> rows = new ArrayList<>();
+        for (String messageType : FINAL_MESSAGE_TYPES) {
+            rows.addAll(anchor != null
+                    ? aiConversationRepository.findMessageTypePageBefore(messageType,
+                            anchor.getCreatedAt(), anchor.getId(), pageRequest)
+                    : aiConversationRepository.findMessageTypeFirstPage(messageType, pageRequest));
+        }
+        rows.sort(NEWEST_FIRST);
+        if (rows.size() > pageSize + 1) {
+            rows = rows.subList(0, pageSize + 1);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * 세션 대화 전체를 NDJSON으로 내보냅니다.
+     * 전방향 커서로 한 행씩 읽어 바로 쓰고 영속성 컨텍스트에서 분리하므로 대화 수와 무관하게 메모리 사용량이 일정합니다.
+     * 응답 스트리밍 스레드에서 호출되므로 트랜잭션은 직접 엽니다.
+     * @return 내보낸 행 수
+     */
+    public long exportSession(String sessionId, OutputStream out) throws IOException {
+        try {
+            Long exported = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<AIConversation> rows = aiConversationRepository.streamBySessionId(sessionId)) {
+                    for (AIConversation conversation : (Iterable<AIConversation>) rows::iterator) {
+                        out.write(objectMapper.writeValueAsBytes(toResponse(conversation)));
+                        out.write(NEWLINE);
+                        entityManager.detach(conversation);
+                        count++;
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            log.info("세션 대화 내보내기 완료: sessionId={}, count={}", sessionId, exported);
+            return exported != null ? exported : 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+    }
+
+    private AIConversation findAnchor(Long id) {
+        return aiConversationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found with id: " + id));
+    }
+
+    private AIConversationPageDTO toPage(List<AIConversation> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<AIConversation> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<AIConversationResponseDTO> conversations = new ArrayList<>(page.size());
+        for (AIConversation conversation : page) {
+            conversations.add(toResponse(conversation));
+        }
+        Long nextCursor = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        return new AIConversationPageDTO(conversations, hasMore, nextCursor);
+    }
+
+    private AIConversationResponseDTO toResponse(AIConversation conversation) {
+        return new AIConversationResponseDTO(
+                conversation.getId(),
+                conversation.getMessageType(),
+                conversation.getContent(),
+                conversation.getRole(),
+                conversation.getSessionId(),
+                conversation.getUserId(),
+                conversation.getClientTimestamp(),
+                conversation.getServerTimestamp(),
+                conversation.getCreatedAt(),
+                conversation.getMetadata());
+    }
+
     @Transactional
     public void deleteConversationsBySession(String sessionId) {
         log.info("세션별 대화 삭제: sessionId={}", sessionId);
         aiConversationRepository.deleteBySessionId(sessionId);
     }
-}
 
+    private static final class BatchItem {
+        private final AIConversationDTO dto;
+        private final String error;
+
+        private BatchItem(AIConversationDTO dto, String error) {
+            this.dto = dto;
+            this.error = error;
+        }
+    }
+}
@@ -1,41 +1,116 @@
 package com.langhakers.talki.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.langhakers.talki.dto.AIConversationBatchResultDTO;
 import com.langhakers.talki.dto.AIConversationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
-import java.net.URI;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * AI 서버 WebSocket 클라이언트.
+ * 연결이 끊기면 지터가 있는 지수 백오프로 재연결합니다.
+ * 수신한 프레임은 I/O 스레드에서 파싱하지 않고 제한된 큐에 넣기만 하며, 파서 스레드가 저장 대상(SAVE_MESSAGE_TYPES)을
+ * 제한된 수집 큐로 넘기고 수집 스레드가 배치로 저장합니다. 큐가 가득 차면 앞 단계가 기다리므로
+ * 저장이 밀릴 때는 소켓 읽기가 멈춰 AI 서버 쪽으로 역압이 전달됩니다.
+ * 배치 저장이 실패하면 지수 백오프로 몇 번 재시도한 뒤 버리며, 종료 시에는 두 큐에 남은 항목을 모두 처리합니다.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AIWebSocketClientService {
 
     private final AIConversationService aiConversationService;
+    private final MeterRegistry meterRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    
+    private final ObjectReader conversationReader = objectMapper.readerFor(AIConversationDTO.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
     @Value("${ai.websocket.url:ws://221.163.19.142:58029/ws}")
     private String aiWebSocketUrl;
-    
+
     @Value("${ai.websocket.auto-connect:false}")
     private boolean autoConnect;
-    
+
+    // 재연결 대기 시간 상한 (초)
     @Value("${ai.websocket.reconnect-interval:30}")
     private int reconnectInterval;
 
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private boolean isConnecting = false;
-    private boolean shouldReconnect = true;
+    @Value("${ai.websocket.reconnect-initial-ms:500}")
+    private long reconnectInitialMs;
+
+    @Value("${ai.websocket.max-message-kb:512}")
+    private int maxMessageKb;
+
+    @Value("${ai.websocket.frame-queue-capacity:1024}")
+    private int frameQueueCapacity;
+
+    @Value("${ai.websocket.ingest.queue-capacity:10000}")
+    private int ingestQueueCapacity;
+
+    @Value("${ai.websocket.ingest.batch-size:100}")
+    private int ingestBatchSize;
+
+    @Value("${ai.websocket.ingest.flush-interval-ms:200}")
+    private long ingestFlushIntervalMs;
+
+    // 배치 저장 시도 횟수 (첫 시도 포함)
+    @Value("${ai.websocket.ingest.max-attempts:3}")
+    private int ingestMaxAttempts;
+
+    @Value("${ai.websocket.ingest.retry-backoff-ms:200}")
+    private long ingestRetryBackoffMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-ws-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean isConnecting = false;
+    private volatile boolean shouldReconnect = true;
+    private volatile WebSocketSession session;
+    private volatile boolean parsing = true;
+    private int reconnectAttempts;
+
+    private BlockingQueue<String> frameQueue;
+    private BlockingQueue<AIConversationDTO> ingestQueue;
+    private Thread parserThread;
+    private Thread ingestThread;
+    private StandardWebSocketClient client;
+
+    private Counter framesCounter;
+    private Counter ingestedCounter;
+    private Counter failedCounter;
+    private Counter retriesCounter;
+    private Counter reconnectsCounter;
 
     // AI 서버에서 보내는 메시지 중 저장할 타입들
     private final Set<String> SAVE_MESSAGE_TYPES = Set.of(
@@ -46,58 +121,300 @@ public class AIWebSocketClientService {
 
     @PostConstruct
     public void init() {
+        frameQueue = new ArrayBlockingQueue<>(frameQueueCapacity);
+        ingestQueue = new ArrayBlockingQueue<>(ingestQueueCapacity);
+
+        framesCounter = Counter.builder("talki.ai.ws.frames")
+                .description("AI 서버에서 수신한 WebSocket 프레임 수")
+                .register(meterRegistry);
+        ingestedCounter = Counter.builder("talki.ai.ws.ingested")
+                .description("AI 서버 메시지 중 저장된 대화 수")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("talki.ai.ws.ingest-failed")
+                .description("AI 서버 메시지 중 저장에 실패한 대화 수")
+                .register(meterRegistry);
+        retriesCounter = Counter.builder("talki.ai.ws.ingest-retries")
+                .description("AI 서버 메시지 배치 저장 재시도 수")
+                .register(meterRegistry);
+        reconnectsCounter = Counter.builder("talki.ai.ws.reconnects")
+                .description("AI 서버 WebSocket 재연결 시도 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.ai.ws.frame-queue", frameQueue, BlockingQueue::size)
+                .description("파싱 대기 중인 프레임 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.ai.ws.ingest-queue", ingestQueue, BlockingQueue::size)
+                .description("저장 대기 중인 대화 수")
+                .register(meterRegistry);
+
+        parserThread = startDaemon("ai-ws-parser", this::parseLoop);
+        ingestThread = startDaemon("ai-ws-ingest", this::ingestLoop);
+
         if (autoConnect) {
             log.info("AI 웹소켓 자동 연결 시작: {}", aiWebSocketUrl);
-            // 실제 웹소켓 연결은 필요시 구현
+            WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+            container.setDefaultMaxTextMessageBufferSize(maxMessageKb * 1024);
+            client = new StandardWebSocketClient(container);
+            scheduler.execute(this::connect);
         }
     }
 
     @PreDestroy
     public void destroy() {
         shouldReconnect = false;
-        scheduler.shutdown();
+        scheduler.shutdownNow();
+        WebSocketSession current = session;
+        if (current != null && current.isOpen()) {
+            try {
+                current.close(CloseStatus.GOING_AWAY);
+            } catch (Exception e) {
+                log.debug("AI 웹소켓 종료 중 오류: {}", e.getMessage());
+            }
+        }
+        // 파서가 프레임 큐를 모두 비운 뒤에 수집 스레드를 멈춰야 남은 프레임까지 저장됨
+        parsing = false;
+        join(parserThread);
+        if (ingestThread != null) {
+            // 수집 스레드는 인터럽트 후 남은 항목을 저장하고 종료
+            ingestThread.interrupt();
+            join(ingestThread);
+        }
+    }
+
+    private static void join(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("{} 스레드가 제한 시간 안에 종료되지 않았습니다.", thread.getName());
+            thread.interrupt();
+        }
+    }
+
+    // ===== 연결 =====
+
+    private void connect() {
+        if (!shouldReconnect || isConnecting) {
+            return;
+        }
+        isConnecting = true;
+        client.execute(new AIServerHandler(), aiWebSocketUrl).whenComplete((connected, error) -> {
+            isConnecting = false;
+            if (error != null) {
+                log.warn("AI 웹소켓 연결 실패: {}", error.getMessage());
+                scheduleReconnect();
+            }
+        });
+    }
+
+    /**
+     * 전체 지터 백오프: [0, min(상한, 초기값 * 2^시도 횟수)) 범위에서 무작위로 대기
+     */
+    private synchronized void scheduleReconnect() {
+        if (!shouldReconnect || scheduler.isShutdown()) {
+            return;
+        }
+        long capMs = TimeUnit.SECONDS.toMillis(reconnectInterval);
+        long ceilingMs = Math.min(capMs, reconnectInitialMs << Math.min(reconnectAttempts, 20));
+        long delayMs = ThreadLocalRandom.current().nextLong(Math.max(1, ceilingMs));
+        reconnectAttempts++;
+        reconnectsCounter.increment();
+        log.info("AI 웹소켓 재연결 예약: {}ms 후 (시도 {})", delayMs, reconnectAttempts);
+        scheduler.schedule(this::connect, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private class AIServerHandler extends TextWebSocketHandler {
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession webSocketSession) {
+            session = webSocketSession;
+            synchronized (AIWebSocketClientService.this) {
+                reconnectAttempts = 0;
+            }
+            log.info("AI 웹소켓 연결됨: {}", aiWebSocketUrl);
+        }
+
+        @Override
+        protected void handleTextMessage(WebSocketSession webSocketSession, TextMessage message) throws InterruptedException {
+            // I/O 스레드에서는 큐에 넣기만 함 (가득 차면 여기서 대기하여 소켓 읽기를 멈춤)
+            framesCounter.increment();
+            frameQueue.put(message.getPayload());
+        }
+
+        @Override
+        public void handleTransportError(WebSocketSession webSocketSession, Throwable exception) {
+            log.warn("AI 웹소켓 전송 오류: {}", exception.getMessage());
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession webSocketSession, CloseStatus status) {
+            if (session == webSocketSession) {
+                session = null;
+            }
+            log.info("AI 웹소켓 연결 종료: {}", status);
+            scheduleReconnect();
+        }
+    }
+
+    // ===== 파싱 / 수집 =====
+
+    private void parseLoop() {
+        try {
+            // 종료 요청 후에도 큐에 남은 프레임은 모두 처리
+            while (parsing || !frameQueue.isEmpty()) {
+                String frame = frameQueue.poll(ingestFlushIntervalMs, TimeUnit.MILLISECONDS);
+                if (frame != null) {
+                    handleAIMessage(frame);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ingestLoop() {
+        List<AIConversationDTO> batch = new ArrayList<>(ingestBatchSize);
+        boolean running = true;
+        while (running) {
+            try {
+                AIConversationDTO first = ingestQueue.poll(ingestFlushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                ingestQueue.drainTo(batch, ingestBatchSize - 1);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                persist(batch);
+                batch.clear();
+            }
+        }
+        // 종료 시 남은 항목도 배치 크기 단위로 저장
+        while (ingestQueue.drainTo(batch, ingestBatchSize) > 0) {
+            persist(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 배치를 한 트랜잭션으로 저장합니다. 일시적인 DB 오류는 지수 백오프로 max-attempts까지 재시도하고,
+     * 그래도 실패하면 배치를 버립니다. 배치 전체가 롤백되므로 재시도해도 중복 저장되지 않습니다.
+     */
+    private void persist(List<AIConversationDTO> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                AIConversationBatchResultDTO result = aiConversationService.saveConversations(batch);
+                ingestedCounter.increment(result.getSaved());
+                failedCounter.increment(result.getFailed());
+                log.debug("AI 메시지 배치 저장: saved={}, failed={}", result.getSaved(), result.getFailed());
+                return;
+            } catch (IllegalArgumentException e) {
+                // 배치 크기 초과 등 재시도해도 같은 결과인 오류
+                failedCounter.increment(batch.size());
+                log.error("AI 메시지 배치 저장 불가: size={}, reason={}", batch.size(), e.getMessage());
+                return;
+            } catch (Exception e) {
+                if (attempt >= ingestMaxAttempts) {
+                    failedCounter.increment(batch.size());
+                    log.error("AI 메시지 배치 저장 실패로 버림: size={}, attempts={}", batch.size(), attempt, e);
+                    return;
+                }
+                long delayMs = ingestRetryBackoffMs << Math.min(attempt - 1, 10);
+                retriesCounter.increment();
+                log.warn("AI 메시지 배치 저장 실패, {}ms 후 재시도 ({}/{}): {}",
+                        delayMs, attempt, ingestMaxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException ie) {
+                    // 종료 중이면 대기 없이 재시도하고, 인터럽트는 수집 루프가 처리하도록 남겨 둠
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
     }
 
     /**
      * AI 서버에서 받은 메시지를 처리하는 메서드
-     * 실제 웹소켓 연결 대신 HTTP API로 데이터를 받을 수도 있음
+     * 스트리밍 파서로 type 필드만 먼저 읽어 저장 대상이 아닌 프레임(부분 전사 등)은 트리를 만들지 않고 버립니다.
+     * 저장 대상 타입은 AIConversationDTO로 바로 바인딩하여 수집 큐에 넣습니다 (큐가 가득 차면 대기).
      */
     public void handleAIMessage(String message) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(message);
-            String messageType = jsonNode.path("type").asText();
+            String messageType = readType(message);
 
             // 저장할 메시지 타입인지 확인
-            if (SAVE_MESSAGE_TYPES.contains(messageType)) {
-                AIConversationDTO dto = new AIConversationDTO();
-                dto.setType(messageType);
-                dto.setContent(jsonNode.path("content").asText());
-                dto.setRole(jsonNode.path("role").asText());
-                
-                // 세션 ID와 사용자 ID는 기본값 설정 (실제 구현에서는 적절히 설정)
-                dto.setSessionId("default-session");
-                dto.setUserId("ai-user");
+            if (messageType != null && SAVE_MESSAGE_TYPES.contains(messageType)) {
+                AIConversationDTO dto = conversationReader.readValue(message);
+                if (dto.getContent() == null) {
+                    dto.setContent("");
+                }
+                if (dto.getRole() == null) {
+                    dto.setRole("");
+                }
+
+                // 세션 ID와 사용자 ID가 없으면 기본값 사용
+                if (dto.getSessionId() == null) {
+                    dto.setSessionId("default-session");
+                }
+                if (dto.getUserId() == null) {
+                    dto.setUserId("ai-user");
+                }
                 dto.setServerTimestamp(System.currentTimeMillis());
 
                 // 추가 메타데이터가 있다면 저장
-                if (jsonNode.has("is_paused")) {
-                    dto.setMetadata(String.format("{\"is_paused\": %s}", jsonNode.path("is_paused").asBoolean()));
+                if (dto.getIsPaused() != null) {
+                    dto.setMetadata(String.format("{\"is_paused\": %s}", dto.getIsPaused()));
                 }
 
-                // 데이터베이스에 저장
-                aiConversationService.saveConversation(dto);
-                log.info("AI 메시지 저장 완료: type={}, content={}", messageType, dto.getContent());
+                ingestQueue.put(dto);
             } else {
                 log.debug("저장하지 않는 메시지 타입: {}", messageType);
             }
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("AI 메시지 처리 중 오류: {}", message, e);
         }
     }
 
+    /**
+     * 최상위 객체의 type 필드 값만 읽습니다. 다른 필드의 값(중첩 객체 포함)은 건너뛰고,
+     * type을 찾으면 나머지는 읽지 않습니다.
+     * @return type 문자열, 없거나 문자열이 아니면 null
+     */
+    String readType(String message) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
     public String getConnectionStatus() {
-        return "HTTP API 모드";
+        if (!autoConnect) {
+            return "HTTP API 모드";
+        }
+        WebSocketSession current = session;
+        if (current != null && current.isOpen()) {
+            return "CONNECTED";
+        }
+        return isConnecting ? "CONNECTING" : "DISCONNECTED";
     }
 
     /**
@@ -112,5 +429,11 @@ public class AIWebSocketClientService {
             log.error("AI 데이터 처리 중 오류", e);
         }
     }
-}
 
+    private static Thread startDaemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
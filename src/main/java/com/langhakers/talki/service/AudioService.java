@@ -33,6 +33,8 @@ public class AudioService {
         audio.setFileUrl(fileUrl);
         audio.setDurationMillis(request.getDurationMillis());
         audio.setCreatedAt(LocalDateTime.now());
+        audio.setContentHash(request.getContentHash());
+        audio.setSizeBytes(request.getSizeBytes());
 
         AudioData saved = audioRepository.save(audio);
 
@@ -42,6 +44,8 @@ public class AudioService {
                 .fileUrl(saved.getFileUrl())
                 .durationMillis(saved.getDurationMillis())
                 .createdAt(saved.getCreatedAt())
+                .contentHash(saved.getContentHash())
+                .sizeBytes(saved.getSizeBytes())
                 .build();
     }
 
@@ -56,6 +60,8 @@ public class AudioService {
                 .fileUrl(audio.getFileUrl())
                 .durationMillis(audio.getDurationMillis())
                 .createdAt(audio.getCreatedAt())
+                .contentHash(audio.getContentHash())
+                .sizeBytes(audio.getSizeBytes())
                 .build();
     }
 
@@ -68,6 +74,8 @@ public class AudioService {
                         .fileUrl(audio.getFileUrl())
                         .durationMillis(audio.getDurationMillis())
                         .createdAt(audio.getCreatedAt())
+                        .contentHash(audio.getContentHash())
+                        .sizeBytes(audio.getSizeBytes())
                         .build())
                 .collect(Collectors.toList());
     }
@@ -96,6 +104,8 @@ public class AudioService {
                 .fileUrl(updatedAudio.getFileUrl())
                 .durationMillis(updatedAudio.getDurationMillis())
                 .createdAt(updatedAudio.getCreatedAt())
+                .contentHash(updatedAudio.getContentHash())
+                .sizeBytes(updatedAudio.getSizeBytes())
                 .build();
     }
 
@@ -221,6 +231,8 @@ public class AudioService {
                 .fileUrl(audio.getFileUrl())
                 .durationMillis(audio.getDurationMillis())
                 .createdAt(audio.getCreatedAt())
+                .contentHash(audio.getContentHash())
+                .sizeBytes(audio.getSizeBytes())
                 .build();
                 
             return CompletableFuture.completedFuture(response);
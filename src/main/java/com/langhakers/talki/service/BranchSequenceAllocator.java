@@ -0,0 +1,78 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.repository.BranchUtteranceRepository;
+import com.langhakers.talki.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * 브랜치별 발화 순번 할당기.
+ * 브랜치를 처음 사용할 때만 DB의 최대 순번을 조회해 카운터를 초기화하고,
+ * 이후에는 메시지마다 쿼리 없이 다음 순번을 발급합니다.
+ * 순번은 발급과 저장을 함께 감싸 저장이 성공했을 때만 확정하므로 이 인스턴스 안에서는 중복이나 누락 없이 증가합니다.
+ * 순번을 쓰는 곳이 branch_utterance(TALKiCommunicationService)와 chat_message(TALKiSimpleService, roomId = branchId)
+ * 두 테이블이므로 초기값은 두 테이블의 최대 순번 중 큰 값입니다.
+ * <p>
+ * 주의: 카운터는 인스턴스(파드) 메모리에만 있으므로 여러 레플리카가 같은 브랜치에 동시에
+ * 발급하면 순번이 겹칠 수 있습니다. 브랜치 쓰기는 한 인스턴스로 라우팅(세션 어피니티)되어야 하며,
+ * 전역 유일성이 필요하면 DB 유니크 제약이나 공유 시퀀스를 사용해야 합니다.
+ * 메모리 저장소에서 브랜치가 제거되면 forget()으로 카운터도 함께 지워 다음 사용 시 DB에서 다시 초기화합니다.
+ * write-behind 모드에서는 아직 대기열에 있는 메시지가 DB 조회에 보이지 않으므로, 브랜치 유휴 제거 시간은
+ * 대기열 flush 간격보다 충분히 길어야 합니다.
+ */
+@Service
+public class BranchSequenceAllocator {
+
+    private final BranchUtteranceRepository utteranceRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final Map<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BranchSequenceAllocator(BranchUtteranceRepository utteranceRepository,
+                                   ChatMessageRepository chatMessageRepository) {
+        this.utteranceRepository = utteranceRepository;
+        this.chatMessageRepository = chatMessageRepository;
+    }
+
+    /**
+     * 브랜치의 다음 순번(1부터 시작)으로 writer를 실행하고, writer가 예외 없이 끝났을 때만 순번을 확정합니다.
+     * writer는 해당 순번으로 행을 저장해야 하며, 같은 브랜치의 발급과 저장은 브랜치 단위로 직렬화됩니다.
+     * writer가 예외를 던지면 순번은 소비되지 않고 예외가 그대로 전달됩니다.
+     */
+    public <T> T allocate(String branchId, IntFunction<T> writer) {
+        AtomicInteger sequence = sequences.computeIfAbsent(branchId, this::seed);
+        synchronized (sequence) {
+            int next = sequence.get() + 1;
+            T result = writer.apply(next);
+            sequence.set(next);
+            return result;
+        }
+    }
+
+    /**
+     * 마지막으로 발급된 순번을 반환합니다. 아직 사용하지 않은 브랜치는 0입니다.
+     */
+    public int current(String branchId) {
+        AtomicInteger sequence = sequences.get(branchId);
+        return sequence != null ? sequence.get() : 0;
+    }
+
+    /**
+     * 브랜치 카운터를 메모리에서 제거합니다. 다음 발급 시 DB에서 다시 초기화됩니다.
+     */
+    public void forget(String branchId) {
+        sequences.remove(branchId);
+    }
+
+    // computeIfAbsent 안에서 한 번만 실행되므로 동시에 처음 사용해도 조회는 한 번만 일어남
+    private AtomicInteger seed(String branchId) {
+        int utteranceMax = utteranceRepository.findMaxSequenceNumberByBranchId(branchId).orElse(0);
+        int messageMax = chatMessageRepository.findMaxSequenceNumberByRoomId(branchId).orElse(0);
+        return new AtomicInteger(Math.max(utteranceMax, messageMax));
+    }
+}
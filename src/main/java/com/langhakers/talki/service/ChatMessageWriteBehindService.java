@@ -0,0 +1,260 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.entity.ChatMessage;
+import com.langhakers.talki.repository.ChatMessageBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 채팅 메시지 write-behind 저장소.
+ * 메시지는 메모리 큐에 먼저 들어가고, 전용 스레드가 max-lag 간격 또는 batch-size 단위로
+ * JDBC 배치 INSERT를 수행합니다. 큐가 가득 차면 호출 스레드에서 즉시 저장하여 유실을 막고,
+ * 종료 시에는 남은 메시지를 모두 저장합니다.
+ * 실패한 배치는 max-batch-attempts번까지 통째로 재시도한 뒤 행 단위로 저장하며, 그래도 저장되지 않는 행
+ * (제약 조건 위반 등)은 로그로 남기고 버려 뒤의 메시지가 막히지 않게 합니다. DB 연결 장애처럼 일시적인 오류로
+ * 실패한 행은 버리지 않고 다음 주기에 다시 시도합니다.
+ */
+@Service
+public class ChatMessageWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriteBehindService.class);
+
+    private final ChatMessageBatchRepository batchRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxLagMs;
+    private final int maxBatchAttempts;
+    private final BlockingQueue<PendingMessage> queue;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    // 주기 flush 예약 여부 (비활성 상태에서는 첫 enqueue 때 예약)
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    // 저장에 실패한 배치는 다음 flush에서 먼저 재시도 (flusher 스레드에서만 접근)
+    private final List<ChatMessage> retryBatch = new ArrayList<>();
+    private int retryAttempts;
+
+    private final Counter flushedCounter;
+    private final Counter failureCounter;
+    private final Counter overflowCounter;
+    private final Counter deadLetterCounter;
+    private final Timer flushTimer;
+
+    @Autowired
+    public ChatMessageWriteBehindService(
+            ChatMessageBatchRepository batchRepository,
+            MeterRegistry meterRegistry,
+            @Value("${talki.chat.write-behind.enabled:false}") boolean enabled,
+            @Value("${talki.chat.write-behind.capacity:10000}") int capacity,
+            @Value("${talki.chat.write-behind.batch-size:200}") int batchSize,
+            @Value("${talki.chat.write-behind.max-lag-ms:500}") long maxLagMs,
+            @Value("${talki.chat.write-behind.max-batch-attempts:5}") int maxBatchAttempts) {
+        this.batchRepository = batchRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxLagMs = maxLagMs;
+        this.maxBatchAttempts = Math.max(1, maxBatchAttempts);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("talki.chat.write-behind.queue.size", queue, BlockingQueue::size)
+                .description("저장 대기 중인 채팅 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.chat.write-behind.queue.lag", this, ChatMessageWriteBehindService::currentLagMillis)
+                .description("가장 오래된 대기 메시지의 지연 시간 (ms)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("talki.chat.write-behind.flushed")
+                .description("DB에 저장된 채팅 메시지 수")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("talki.chat.write-behind.failures")
+                .description("배치 저장 실패 횟수")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("talki.chat.write-behind.overflow")
+                .description("큐 초과로 호출 스레드에서 직접 저장한 메시지 수")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("talki.chat.write-behind.dead-letter")
+                .description("재시도 후에도 저장하지 못해 버린 채팅 메시지 수")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("talki.chat.write-behind.flush")
+                .description("배치 저장 소요 시간")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            startFlusher();
+            logger.info("채팅 메시지 write-behind 활성화: batchSize={}, maxLagMs={}", batchSize, maxLagMs);
+        }
+    }
+
+    private void startFlusher() {
+        if (started.compareAndSet(false, true)) {
+            flusher.scheduleWithFixedDelay(this::flushSafely, maxLagMs, maxLagMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 직전 남은 메시지를 모두 저장
+        flushSafely();
+        logger.info("채팅 메시지 write-behind 종료: 남은 메시지={}", queue.size() + retryBatch.size());
+    }
+
+    /**
+     * TALKi 캐릭터 메시지를 write-behind 방식으로 저장할지 여부
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 메시지를 저장 큐에 넣습니다. timestamp가 비어 있으면 현재 시각으로 채웁니다.
+     */
+    public void enqueue(ChatMessage message) {
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(LocalDateTime.now());
+        }
+        // 비활성 상태에서도 gRPC 스트림 등 명시적으로 큐를 쓰는 호출이 있으면 그때 flusher를 시작
+        startFlusher();
+        if (!queue.offer(new PendingMessage(message, System.nanoTime()))) {
+            // 큐가 가득 찬 경우 유실 대신 호출 스레드에서 바로 저장 (자연스러운 backpressure)
+            overflowCounter.increment();
+            batchRepository.insertAll(List.of(message));
+            flushedCounter.increment();
+            return;
+        }
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushSafely);
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private synchronized void flushSafely() {
+        flushRequested.set(false);
+        try {
+            if (!retryBatch.isEmpty()) {
+                retryPending();
+            }
+            List<PendingMessage> drained = new ArrayList<>(batchSize);
+            while (queue.drainTo(drained, batchSize) > 0) {
+                List<ChatMessage> batch = new ArrayList<>(drained.size());
+                for (PendingMessage pending : drained) {
+                    batch.add(pending.message);
+                }
+                drained.clear();
+                try {
+                    writeBatch(batch);
+                } catch (RuntimeException e) {
+                    retryBatch.addAll(batch);
+                    retryAttempts = 1;
+                    throw e;
+                }
+            }
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            logger.error("채팅 메시지 배치 저장 실패 (다음 주기에 재시도 {}/{}): pending={}",
+                    retryAttempts, maxBatchAttempts, retryBatch.size(), e);
+        }
+    }
+
+    // 실패했던 배치를 다시 저장하고, 시도 횟수를 다 쓰면 행 단위로 저장
+    private void retryPending() {
+        try {
+            writeBatch(retryBatch);
+        } catch (RuntimeException e) {
+            retryAttempts++;
+            if (retryAttempts < maxBatchAttempts) {
+                throw e;
+            }
+            logger.warn("채팅 메시지 배치가 {}회 실패하여 행 단위로 저장합니다: count={}", retryAttempts, retryBatch.size());
+            writeRowByRow();
+            return;
+        }
+        retryBatch.clear();
+        retryAttempts = 0;
+    }
+
+    private void writeRowByRow() {
+        List<ChatMessage> remaining = new ArrayList<>(retryBatch);
+        retryBatch.clear();
+        retryAttempts = 0;
+        for (int i = 0; i < remaining.size(); i++) {
+            ChatMessage message = remaining.get(i);
+            try {
+                batchRepository.insertAll(List.of(message));
+                flushedCounter.increment();
+            } catch (DuplicateKeyException e) {
+                // 같은 messageKey 행이 이미 있음 (이미 저장된 메시지)
+                logger.warn("이미 저장된 채팅 메시지 건너뜀: messageKey={}", message.getMessageKey());
+            } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+                // 행 문제가 아니라 DB 장애이므로 남은 행은 다음 주기에 다시 시도
+                retryBatch.addAll(remaining.subList(i, remaining.size()));
+                throw e;
+            } catch (RuntimeException e) {
+                deadLetterCounter.increment();
+                logger.error("채팅 메시지 저장 포기: roomId={}, messageKey={}, senderId={}, timestamp={}, content={}",
+                        message.getRoomId(), message.getMessageKey(), message.getSenderId(),
+                        message.getTimestamp(), message.getContent(), e);
+            }
+        }
+    }
+
+    private void writeBatch(List<ChatMessage> batch) {
+        flushTimer.record(() -> batchRepository.insertAll(batch));
+        flushedCounter.increment(batch.size());
+        logger.debug("채팅 메시지 배치 저장: count={}", batch.size());
+    }
+
+    private double currentLagMillis() {
+        PendingMessage head = queue.peek();
+        if (head == null) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAtNanos);
+    }
+
+    private static final class PendingMessage {
+        private final ChatMessage message;
+        private final long enqueuedAtNanos;
+
+        private PendingMessage(ChatMessage message, long enqueuedAtNanos) {
+            this.message = message;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+}
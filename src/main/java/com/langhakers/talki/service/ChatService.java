@@ -1,13 +1,20 @@
 package com.langhakers.talki.service;
 
 import com.langhakers.talki.entity.ChatMessage;
+import com.langhakers.talki.exception.ResourceNotFoundException;
 import com.langhakers.talki.dto.MessageDTO;
 import com.langhakers.talki.repository.ChatMessageRepository;
 import com.langhakers.talki.dto.ChatMessageMapper;
+import com.langhakers.talki.dto.MessagePageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,6 +23,13 @@ import java.util.stream.Collectors;
 public class ChatService {
     private final ChatMessageRepository chatMessageRepository;
     private final ChatMessageMapper chatMessageMapper;
+    private final ChatMessageWriteBehindService writeBehindService;
+
+    @Value("${talki.chat.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${talki.chat.history.max-page-size:200}")
+    private int maxPageSize;
 
     @Transactional
     public MessageDTO saveMessage(MessageDTO messageDTO) {
@@ -24,6 +38,13 @@ public class ChatService {
         return chatMessageMapper.entityToDto(savedMessage);
     }
 
+    /**
+     * 메시지를 write-behind 큐에 넣어 배치로 저장합니다. 저장된 ID는 반환되지 않습니다.
+     */
+    public void enqueueMessage(MessageDTO messageDTO) {
+        writeBehindService.enqueue(chatMessageMapper.dtoToEntity(messageDTO));
+    }
+
     @Transactional(readOnly = true)
     public List<MessageDTO> getMessages(String roomId) {
         return chatMessageRepository.findByRoomIdOrderByTimestampAsc(roomId).stream()
@@ -31,6 +52,76 @@ public class ChatService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 채팅 기록을 (timestamp, id) 키셋으로 한 페이지씩 조회합니다.
+     * afterId/beforeId는 이전 페이지의 newestId/oldestId이고, 메시지 ID 대신 시각(after/before)으로도 시작할 수 있습니다.
+     * 커서가 없으면 가장 최근 페이지를 반환합니다.
+     */
+    @Transactional(readOnly = true)
+    public MessagePageDTO getMessagePage(String roomId, Long afterId, Long beforeId,
+                                         LocalDateTime after, LocalDateTime before, Integer limit) {
+        boolean forward = afterId != null || after != null;
+        boolean backward = beforeId != null || before != null;
+        if (forward && backward) {
+            throw new IllegalArgumentException("after와 before 커서는 함께 사용할 수 없습니다.");
+        }
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        // 다음 페이지 존재 여부를 알기 위해 한 건 더 조회
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+
+        List<ChatMessage> rows;
+        if (forward) {
+            ChatMessage anchor = afterId != null ? findAnchor(roomId, afterId) : null;
+            rows = anchor != null
+                    ? chatMessageRepository.findPageAfter(roomId, anchor.getTimestamp(), anchor.getId(), pageRequest)
+                    : chatMessageRepository.findPageAfter(roomId, after, Long.MAX_VALUE, pageRequest);
+        } else if (backward) {
+            ChatMessage anchor = beforeId != null ? findAnchor(roomId, beforeId) : null;
+            rows = anchor != null
+                    ? chatMessageRepository.findPageBefore(roomId, anchor.getTimestamp(), anchor.getId(), pageRequest)
+                    : chatMessageRepository.findPageBefore(roomId, before, Long.MIN_VALUE, pageRequest);
+        } else {
+            rows = chatMessageRepository.findLatestPage(roomId, pageRequest);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatMessage> page = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (!forward) {
+            // 역방향 조회 결과를 오래된 순으로 정렬
+            Collections.reverse(page);
+        }
+        List<MessageDTO> messages = page.stream()
+                .map(chatMessageMapper::entityToDto)
+                .collect(Collectors.toList());
+        Long oldestId = page.isEmpty() ? null : page.get(0).getId();
+        Long newestId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        return new MessagePageDTO(messages, hasMore, oldestId, newestId);
+    }
+
+    /**
+     * 기록 내보내기용 청크 조회. 직전 청크의 마지막 메시지 (timestamp, id) 이후 메시지를 오래된 순으로 반환합니다.
+     * 청크마다 짧은 읽기 트랜잭션으로 끝나므로 느린 클라이언트가 DB 연결을 오래 붙잡지 않습니다.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageDTO> getMessagesAfter(String roomId, LocalDateTime timestamp, Long id, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, limit);
+        List<ChatMessage> rows = timestamp == null
+                ? chatMessageRepository.findEarliestPage(roomId, pageRequest)
+                : chatMessageRepository.findPageAfter(roomId, timestamp, id, pageRequest);
+        return rows.stream()
+                .map(chatMessageMapper::entityToDto)
+                .collect(Collectors.toList());
+    }
+
+    private ChatMessage findAnchor(String roomId, Long id) {
+        ChatMessage anchor = chatMessageRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Message not found with id: " + id));
+        if (!anchor.getRoomId().equals(roomId)) {
+            throw new IllegalArgumentException("Message " + id + " does not belong to room " + roomId);
+        }
+        return anchor;
+    }
+
     @Transactional
     public void deleteMessage(Long id) {
         chatMessageRepository.deleteById(id);
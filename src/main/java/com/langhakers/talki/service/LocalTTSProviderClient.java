@@ -0,0 +1,104 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.TTSSynthesisRequest;
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.TTSProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * LOCAL 제공업체용 가짜 TTS 엔진. 텍스트 길이에 비례한 사인파 PCM(16-bit mono)을 생성합니다.
+ * 첫 청크 지연과 청크 간 지연을 설정할 수 있어 스트리밍 경로의 첫 바이트 도달 시간(TTFB)을
+ * 외부 제공업체 없이 측정할 수 있습니다. WAV 외 포맷(MP3)을 요청하면 WAV로 응답합니다.
+ */
+@Component
+public class LocalTTSProviderClient implements TTSProviderClient {
+
+    private static final int DEFAULT_SAMPLE_RATE = 22050;
+    private static final double BASE_FREQUENCY = 220.0;
+
+    @Value("${talki.tts.local.first-chunk-delay-ms:0}")
+    private long firstChunkDelayMs;
+
+    @Value("${talki.tts.local.chunk-delay-ms:0}")
+    private long chunkDelayMs;
+
+    @Value("${talki.tts.local.chunk-ms:100}")
+    private int chunkMs;
+
+    @Value("${talki.tts.local.ms-per-char:60}")
+    private int msPerChar;
+
+    @Override
+    public TTSProvider getProvider() {
+        return TTSProvider.LOCAL;
+    }
+
+    @Override
+    public AudioFormat getOutputFormat(TTSSynthesisRequest request) {
+        return request.getAudioFormat() == AudioFormat.PCM ? AudioFormat.PCM : AudioFormat.WAV;
+    }
+
+    @Override
+    public void synthesize(TTSSynthesisRequest request, ChunkSink sink) throws IOException {
+        int sampleRate = request.getSampleRate() != null ? request.getSampleRate() : DEFAULT_SAMPLE_RATE;
+        float speed = request.getSpeed() != null && request.getSpeed() > 0 ? request.getSpeed() : 1.0f;
+        float pitch = request.getPitch() != null && request.getPitch() > 0 ? request.getPitch() : 1.0f;
+        float volume = request.getVolume() != null ? Math.min(Math.max(request.getVolume(), 0f), 1f) : 1.0f;
+        String text = request.getText() != null ? request.getText() : "";
+
+        long totalMs = Math.max(chunkMs, (long) (text.length() * msPerChar / speed));
+        long totalSamples = totalMs * sampleRate / 1000;
+        int samplesPerChunk = Math.max(1, chunkMs * sampleRate / 1000);
+        double step = 2 * Math.PI * BASE_FREQUENCY * pitch / sampleRate;
+        short amplitude = (short) (Short.MAX_VALUE * 0.3 * volume);
+
+        pause(firstChunkDelayMs);
+        if (getOutputFormat(request) == AudioFormat.WAV) {
+            sink.accept(wavHeader(sampleRate, totalSamples * 2), 0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(samplesPerChunk * 2).order(ByteOrder.LITTLE_ENDIAN);
+        long sample = 0;
+        while (sample < totalSamples) {
+            int count = (int) Math.min(samplesPerChunk, totalSamples - sample);
+            buffer.clear();
+            for (int i = 0; i < count; i++, sample++) {
+                buffer.putShort((short) (amplitude * Math.sin(step * sample)));
+            }
+            byte[] chunk = new byte[count * 2];
+            buffer.flip();
+            buffer.get(chunk);
+            sink.accept(chunk, count * 1000L / sampleRate);
+            if (sample < totalSamples) {
+                pause(chunkDelayMs);
+            }
+        }
+    }
+
+    private static byte[] wavHeader(int sampleRate, long dataBytes) {
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes()).putInt((int) (36 + dataBytes)).put("WAVE".getBytes());
+        header.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(sampleRate).putInt(sampleRate * 2).putShort((short) 2).putShort((short) 16);
+        header.put("data".getBytes()).putInt((int) dataBytes);
+        return header.array();
+    }
+
+    private static void pause(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("TTS 합성이 중단되었습니다.");
+        }
+    }
+}
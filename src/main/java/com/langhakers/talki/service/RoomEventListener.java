@@ -0,0 +1,83 @@
+package com.langhakers.talki.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import com.langhakers.talki.websocket.TalkiWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 다른 파드가 발행한 룸 이벤트를 받아 이 파드에 연결된 참가자에게 전달합니다.
+ * 모든 파드가 모든 이벤트를 받아야 하므로 컨슈머 그룹을 쓰지 않고 토픽의 모든 파티션을 직접 할당받아
+ * 기동 시점의 끝(END)부터 읽습니다. 그룹도 오프셋 커밋도 없으므로 Deployment 파드가 재시작되거나
+ * 교체되어도 브로커에 컨슈머 그룹이 쌓이지 않습니다.
+ * TTS 라우팅 캐시 무효화 이벤트도 같은 토픽으로 받아 이 파드의 캐시에서 해당 키를 제거합니다.
+ */
+@Component
+@ConditionalOnProperty(name = "talki.cluster.fanout.enabled", havingValue = "true")
+public class RoomEventListener {
+
+    private final TALKiSimpleService talkiService;
+    private final TalkiWebSocketHandler legacyHandler;
+    private final RoomEventPublisher publisher;
+    private final TTSRoutingCache routingCache;
+    private final Counter receivedCounter;
+    private final Counter deliveredCounter;
+
+    @Autowired
+    public RoomEventListener(TALKiSimpleService talkiService, TalkiWebSocketHandler legacyHandler,
+                             RoomEventPublisher publisher, TTSRoutingCache routingCache,
+                             MeterRegistry meterRegistry) {
+        this.talkiService = talkiService;
+        this.legacyHandler = legacyHandler;
+        this.publisher = publisher;
+        this.routingCache = routingCache;
+        this.receivedCounter = Counter.builder("talki.cluster.fanout.received")
+                .description("다른 파드에서 수신한 룸 이벤트 수")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("talki.cluster.fanout.delivered")
+                .description("수신한 룸 이벤트를 로컬 소켓에 전달한 횟수")
+                .register(meterRegistry);
+    }
+
+    // 파티션 수는 RoomEventKafkaConfig가 생성하는 토픽과 같은 설정값을 사용
+    @KafkaListener(
+            topicPartitions = @TopicPartition(
+                    topic = "${talki.cluster.fanout.topic:talki.room-events}",
+                    partitions = "#{'0-' + (${talki.cluster.fanout.partitions:12} - 1)}",
+                    partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0", seekPosition = "END")),
+            containerFactory = "roomEventListenerContainerFactory")
+    public void onRoomEvents(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (publisher.getNodeId().equals(headerValue(record, RoomEventPublisher.ORIGIN_HEADER))) {
+                continue; // 이 파드에서 발행한 이벤트는 이미 로컬로 전달됨
+            }
+            receivedCounter.increment();
+            String kind = headerValue(record, RoomEventPublisher.KIND_HEADER);
+            if (RoomEventPublisher.KIND_LEGACY_ROOM.equals(kind)) {
+                deliveredCounter.increment(legacyHandler.deliverRoomFrame(record.key(), record.value()));
+                continue;
+            }
+            if (RoomEventPublisher.KIND_TTS_ROUTING_INVALIDATION.equals(kind)) {
+                routingCache.invalidateLocal(record.key(), new String(record.value(), StandardCharsets.UTF_8));
+                continue;
+            }
+            String excludeParticipantId = headerValue(record, RoomEventPublisher.EXCLUDE_HEADER);
+            deliveredCounter.increment(talkiService.deliverRoomEvent(record.key(), excludeParticipantId, record.value()));
+        }
+    }
+
+    private static String headerValue(ConsumerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.langhakers.talki.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 룸 이벤트를 Kafka 토픽에 발행해 다른 파드에 연결된 참가자에게도 전달되도록 합니다.
+ * 메시지 키는 sessionId이므로 같은 세션의 이벤트는 같은 파티션에서 순서대로 전달됩니다.
+ * talki.cluster.fanout.enabled=false이면 아무 동작도 하지 않습니다.
+ */
+@Component
+public class RoomEventPublisher {
+
+    public static final String ORIGIN_HEADER = "talki-origin";
+    public static final String EXCLUDE_HEADER = "talki-exclude";
+    // 이벤트 종류 (없으면 TALKi 세션 이벤트, LEGACY_ROOM이면 기존 채팅 방 프레임)
+    public static final String KIND_HEADER = "talki-kind";
+    public static final String KIND_LEGACY_ROOM = "legacy-room";
+    public static final String KIND_TTS_ROUTING_INVALIDATION = "tts-routing-invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomEventPublisher.class);
+
+    // 이 파드를 식별하는 ID (자기 자신이 발행한 이벤트를 다시 전달하지 않기 위해 사용)
+    private final String nodeId = UUID.randomUUID().toString();
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String topic;
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+
+    @Autowired
+    public RoomEventPublisher(
+            @Qualifier("roomEventKafkaTemplate") ObjectProvider<KafkaTemplate<String, byte[]>> kafkaTemplate,
+            @Value("${talki.cluster.fanout.topic:talki.room-events}") String topic,
+            MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate.getIfAvailable();
+        this.topic = topic;
+        this.publishedCounter = Counter.builder("talki.cluster.fanout.published")
+                .description("Kafka로 발행한 룸 이벤트 수")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("talki.cluster.fanout.publish-failures")
+                .description("룸 이벤트 발행 실패 수")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return kafkaTemplate != null;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 인코딩된 프레임을 비동기로 발행합니다. 로컬 전달은 호출자가 이미 수행했다고 가정합니다.
+     */
+    public void publish(String sessionId, String excludeParticipantId, byte[] payload) {
+        send(sessionId, excludeParticipantId, null, payload);
+    }
+
+    /**
+     * 기존 채팅 방(/ws/{roomId})의 프레임을 발행합니다. 키는 roomId입니다.
+     */
+    public void publishLegacyRoom(String roomId, byte[] payload) {
+        send(roomId, null, KIND_LEGACY_ROOM, payload);
+    }
+
+    /**
+     * 다른 파드의 TTS 라우팅 캐시에서 (sessionId, participantId)를 무효화하도록 발행합니다.
+     * 키는 sessionId, 본문은 participantId입니다.
+     */
+    public void publishRoutingInvalidation(String sessionId, String participantId) {
+        send(sessionId, null, KIND_TTS_ROUTING_INVALIDATION, participantId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(String key, String excludeParticipantId, String kind, byte[] payload) {
+        if (kafkaTemplate == null) {
+            return;
+        }
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, payload);
+        record.headers().add(ORIGIN_HEADER, nodeId.getBytes(StandardCharsets.UTF_8));
+        if (excludeParticipantId != null) {
+            record.headers().add(EXCLUDE_HEADER, excludeParticipantId.getBytes(StandardCharsets.UTF_8));
+        }
+        if (kind != null) {
+            record.headers().add(KIND_HEADER, kind.getBytes(StandardCharsets.UTF_8));
+        }
+        kafkaTemplate.send(record).whenComplete((result, error) -> {
+            if (error != null) {
+                failureCounter.increment();
+                logger.warn("룸 이벤트 발행 실패: key={}, error={}", key, error.getMessage());
+            } else {
+                publishedCounter.increment();
+            }
+        });
+    }
+}
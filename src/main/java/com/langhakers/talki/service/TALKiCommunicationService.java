@@ -1,17 +1,16 @@
 package com.langhakers.talki.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.langhakers.talki.dto.*;
 import com.langhakers.talki.entity.*;
 import com.langhakers.talki.repository.*;
+import com.langhakers.talki.websocket.ParticipantSessionRegistry;
+import com.langhakers.talki.websocket.WebSocketBroadcaster;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class TALKiCommunicationService {
@@ -21,12 +20,12 @@ public class TALKiCommunicationService {
     private final SessionBranchRepository branchRepository;
     private final BranchUtteranceRepository utteranceRepository;
     private final TTSRoutingConfigRepository ttsConfigRepository;
-    private final ObjectMapper objectMapper;
+    private final WebSocketBroadcaster broadcaster;
+    private final BranchSequenceAllocator sequenceAllocator;
+    private final TTSRoutingCache routingCache;
     
-    // Active WebSocket sessions mapped by participant ID
-    private final Map<String, WebSocketSession> activeSessions = new ConcurrentHashMap<>();
-    // Session participants mapped by session ID
-    private final Map<String, Set<String>> sessionParticipants = new ConcurrentHashMap<>();
+    // Participant <-> session registry (WebSocket connections and session membership)
+    private final ParticipantSessionRegistry participantRegistry = new ParticipantSessionRegistry();
     
     @Autowired
     public TALKiCommunicationService(
@@ -35,23 +34,30 @@ public class TALKiCommunicationService {
             SessionBranchRepository branchRepository,
             BranchUtteranceRepository utteranceRepository,
             TTSRoutingConfigRepository ttsConfigRepository,
-            ObjectMapper objectMapper) {
+            WebSocketBroadcaster broadcaster,
+            BranchSequenceAllocator sequenceAllocator,
+            TTSRoutingCache routingCache) {
         this.sessionRepository = sessionRepository;
         this.participantRepository = participantRepository;
         this.branchRepository = branchRepository;
         this.utteranceRepository = utteranceRepository;
         this.ttsConfigRepository = ttsConfigRepository;
-        this.objectMapper = objectMapper;
+        this.broadcaster = broadcaster;
+        this.sequenceAllocator = sequenceAllocator;
+        this.routingCache = routingCache;
     }
     
     public void registerSession(String participantId, WebSocketSession session) {
-        activeSessions.put(participantId, session);
+        participantRegistry.connect(participantId, session);
     }
     
     public void unregisterSession(String participantId) {
-        activeSessions.remove(participantId);
-        // Remove from all session participants
-        sessionParticipants.values().forEach(participants -> participants.remove(participantId));
+        participantRegistry.disconnect(participantId);
+    }
+    
+    public void unregisterSession(String participantId, WebSocketSession session) {
+        // Ignored if the participant already reconnected with a newer connection
+        participantRegistry.disconnect(participantId, session);
     }
     
     public TALKiResponseDTO handleJoinSession(TALKiJoinSessionDTO joinRequest) {
@@ -74,7 +80,7 @@ public class TALKiCommunicationService {
         participantRepository.save(participant);
         
         // Add to session participants tracking
-        sessionParticipants.computeIfAbsent(sessionId, k -> new HashSet<>()).add(participantId);
+        participantRegistry.join(sessionId, participantId);
         
         // Notify other participants
         broadcastToSession(sessionId, createParticipantJoinedMessage(participant), participantId);
@@ -130,9 +136,11 @@ public class TALKiCommunicationService {
         utterance.setContent(messageRequest.getMessage());
         utterance.setUtteranceType(UtteranceType.CHARACTER_SPEECH);
         utterance.setTimestamp(LocalDateTime.now());
-        utterance.setSequenceNumber(getNextSequenceNumber(branchId));
-        
-        utteranceRepository.save(utterance);
+        // 저장이 성공했을 때만 순번을 확정 (실패해도 빈 순번이 생기지 않음)
+        sequenceAllocator.allocate(branchId, sequence -> {
+            utterance.setSequenceNumber(sequence);
+            return utteranceRepository.save(utterance);
+        });
         
         // Broadcast message to session participants
         TALKiMessageDTO broadcastMessage = new TALKiMessageDTO();
@@ -170,6 +178,7 @@ public class TALKiCommunicationService {
         ttsConfig.setIsActive(true);
         
         ttsConfigRepository.save(ttsConfig);
+        routingCache.invalidate(sessionId, ttsRequest.getCharacterId());
         
         return TALKiResponseDTO.success("TTS_CONFIGURED", createTTSConfigInfoDTO(ttsConfig));
     }
@@ -185,23 +194,9 @@ public class TALKiCommunicationService {
     }
     
     private void broadcastToSession(String sessionId, TALKiMessageDTO message, String excludeParticipantId) {
-        Set<String> participants = sessionParticipants.get(sessionId);
-        if (participants != null) {
-            for (String participantId : participants) {
-                if (!participantId.equals(excludeParticipantId)) {
-                    WebSocketSession session = activeSessions.get(participantId);
-                    if (session != null && session.isOpen()) {
-                        try {
-                            String messageJson = objectMapper.writeValueAsString(message);
-                            session.sendMessage(new TextMessage(messageJson));
-                        } catch (Exception e) {
-                            // Log error but continue
-                            System.err.println("Failed to send message to participant " + participantId + ": " + e.getMessage());
-                        }
-                    }
-                }
-            }
-        }
+        List<WebSocketSession> recipients = participantRegistry.getConnections(sessionId, excludeParticipantId);
+        // 수신자 수와 관계없이 JSON 인코딩은 한 번만 수행
+        broadcaster.broadcast(message, recipients);
     }
     
     private TALKiMessageDTO createParticipantJoinedMessage(SessionParticipant participant) {
@@ -280,10 +275,4 @@ public class TALKiCommunicationService {
         dto.setVolume(config.getVolume());
         return dto;
     }
-    
-    private Integer getNextSequenceNumber(String branchId) {
-        return utteranceRepository.findMaxSequenceNumberByBranchId(branchId)
-                .map(max -> max + 1)
-                .orElse(1);
-    }
 }
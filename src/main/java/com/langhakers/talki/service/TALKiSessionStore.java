@@ -0,0 +1,481 @@
+package com.langhakers.talki.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * TALKiSimpleService의 세션/브랜치/메시지 메모리 저장소.
+ * 브랜치별 메시지는 최근 N개만 유지하는 링 버퍼에 저장되고,
+ * 주기적인 sweep에서 유휴 세션·브랜치를 제거하며 추정 메모리 사용량이 예산을 넘으면
+ * 가장 오래 사용되지 않은 브랜치부터 제거합니다.
+ * 세션 참가자는 participantId별로 하나만 유지하며 추정 사용량에 포함됩니다.
+ * 세션이 제거되면 그 세션의 브랜치도 함께 제거되고, 제거된 브랜치의 순번 카운터는
+ * BranchSequenceAllocator에서도 지워집니다.
+ */
+@Component
+public class TALKiSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TALKiSessionStore.class);
+
+    // 객체 헤더, 필드, LocalDateTime 등 문자열 외 고정 비용의 대략적인 추정치
+    private static final long MESSAGE_OVERHEAD_BYTES = 256;
+    private static final long BRANCH_OVERHEAD_BYTES = 512;
+    private static final long PARTICIPANT_OVERHEAD_BYTES = 192;
+
+    private final BranchSequenceAllocator sequenceAllocator;
+    private final int maxMessagesPerBranch;
+    private final long idleTtlMillis;
+    private final int maxSessions;
+    private final long heapBudgetBytes;
+    private final long sweepIntervalSeconds;
+
+    private final Map<String, SessionEntry> sessions = new ConcurrentHashMap<>();
+    private final Map<String, BranchEntry> branches = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicLong messageCount = new AtomicLong();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "talki-store-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter messageEvictions;
+    private final Counter idleEvictions;
+    private final Counter budgetEvictions;
+    private final Counter capacityEvictions;
+
+    // 연결된 참가자가 있는 세션인지 판단 (유휴/용량 제거 대상에서 제외)
+    private volatile Predicate<String> liveSessionCheck = sessionId -> false;
+
+    @Autowired
+    public TALKiSessionStore(
+            MeterRegistry meterRegistry,
+            BranchSequenceAllocator sequenceAllocator,
+            @Value("${talki.store.max-messages-per-branch:200}") int maxMessagesPerBranch,
+            @Value("${talki.store.idle-ttl-minutes:60}") long idleTtlMinutes,
+            @Value("${talki.store.max-sessions:10000}") int maxSessions,
+            @Value("${talki.store.heap-budget-mb:64}") long heapBudgetMb,
+            @Value("${talki.store.sweep-interval-seconds:30}") long sweepIntervalSeconds) {
+        this.sequenceAllocator = sequenceAllocator;
+        this.maxMessagesPerBranch = maxMessagesPerBranch;
+        this.idleTtlMillis = TimeUnit.MINUTES.toMillis(idleTtlMinutes);
+        this.maxSessions = maxSessions;
+        this.heapBudgetBytes = heapBudgetMb * 1024 * 1024;
+        this.sweepIntervalSeconds = sweepIntervalSeconds;
+
+        Gauge.builder("talki.store.sessions", sessions, Map::size)
+                .description("메모리에 저장된 세션 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.store.branches", branches, Map::size)
+                .description("메모리에 저장된 브랜치 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.store.messages", messageCount, AtomicLong::get)
+                .description("메모리에 저장된 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.store.estimated-bytes", estimatedBytes, AtomicLong::get)
+                .description("메모리 저장소 추정 사용량")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.messageEvictions = evictionCounter(meterRegistry, "ring-buffer");
+        this.idleEvictions = evictionCounter(meterRegistry, "idle");
+        this.budgetEvictions = evictionCounter(meterRegistry, "budget");
+        this.capacityEvictions = evictionCounter(meterRegistry, "capacity");
+    }
+
+    /**
+     * 참가자가 연결되어 있는 세션을 판별하는 조건을 등록합니다.
+     * 조건을 만족하는 세션과 그 브랜치는 오래 메시지가 없어도 유휴·용량 제거에서 제외됩니다.
+     */
+    public void setLiveSessionCheck(Predicate<String> liveSessionCheck) {
+        this.liveSessionCheck = liveSessionCheck;
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("talki.store.evictions")
+                .description("메모리 저장소에서 제거된 항목 수")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+
+    // ===== 세션 =====
+
+    public TALKiSessionData getOrCreateSession(String sessionId, Function<String, TALKiSessionData> factory) {
+        SessionEntry entry = sessions.computeIfAbsent(sessionId, id -> new SessionEntry(factory.apply(id)));
+        entry.touch();
+        return entry.session;
+    }
+
+    public TALKiSessionData getSession(String sessionId) {
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry == null) {
+            return null;
+        }
+        entry.touch();
+        return entry.session;
+    }
+
+    /**
+     * 세션 참가자 정보를 participantId 기준으로 저장합니다. 다시 참여하면 기존 항목을 대체합니다.
+     * @return 참가자가 저장되었으면 true, 세션이 없으면 false
+     */
+    public boolean putParticipant(String sessionId, TALKiParticipantData participant) {
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry == null) {
+            return false;
+        }
+        long size = estimateSize(participant);
+        synchronized (entry) {
+            if (entry.released) {
+                return false;
+            }
+            TALKiParticipantData previous = entry.session.participants.put(participant.participantId, participant);
+            long delta = size - (previous != null ? estimateSize(previous) : 0);
+            entry.bytes += delta;
+            estimatedBytes.addAndGet(delta);
+        }
+        entry.touch();
+        return true;
+    }
+
+    /**
+     * 세션을 떠난 참가자 정보를 제거합니다.
+     */
+    public void removeParticipant(String sessionId, String participantId) {
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (entry.released) {
+                return;
+            }
+            TALKiParticipantData removed = entry.session.participants.remove(participantId);
+            if (removed != null) {
+                long size = estimateSize(removed);
+                entry.bytes -= size;
+                estimatedBytes.addAndGet(-size);
+            }
+        }
+    }
+
+    // ===== 브랜치 =====
+
+    public void putBranch(TALKiBranchData branch) {
+        BranchEntry previous = branches.put(branch.branchId, new BranchEntry(branch));
+        if (previous != null) {
+            release(previous);
+            sequenceAllocator.forget(branch.branchId);
+        }
+        estimatedBytes.addAndGet(BRANCH_OVERHEAD_BYTES);
+        touchSession(branch.sessionId);
+    }
+
+    public TALKiBranchData getOrCreateBranch(String branchId, Function<String, TALKiBranchData> factory) {
+        BranchEntry entry = branches.computeIfAbsent(branchId, id -> {
+            estimatedBytes.addAndGet(BRANCH_OVERHEAD_BYTES);
+            return new BranchEntry(factory.apply(id));
+        });
+        entry.touch();
+        touchSession(entry.branch.sessionId);
+        return entry.branch;
+    }
+
+    public TALKiBranchData getBranch(String branchId) {
+        BranchEntry entry = branches.get(branchId);
+        if (entry == null) {
+            return null;
+        }
+        entry.touch();
+        return entry.branch;
+    }
+
+    // ===== 메시지 =====
+
+    /**
+     * 브랜치 링 버퍼에 메시지를 추가합니다. 용량을 넘으면 가장 오래된 메시지가 제거됩니다.
+     * @return 메시지가 저장되었으면 true, 브랜치가 없으면 false
+     */
+    public boolean appendMessage(String branchId, TALKiMessageData message) {
+        BranchEntry entry = branches.get(branchId);
+        if (entry == null) {
+            return false;
+        }
+        long size = estimateSize(message);
+        synchronized (entry) {
+            if (entry.released) {
+                return false;
+            }
+            entry.messages.addLast(message);
+            entry.bytes += size;
+            estimatedBytes.addAndGet(size);
+            messageCount.incrementAndGet();
+            while (entry.messages.size() > maxMessagesPerBranch) {
+                TALKiMessageData evicted = entry.messages.pollFirst();
+                long evictedSize = estimateSize(evicted);
+                entry.bytes -= evictedSize;
+                estimatedBytes.addAndGet(-evictedSize);
+                messageCount.decrementAndGet();
+                messageEvictions.increment();
+            }
+        }
+        entry.touch();
+        touchSession(entry.branch.sessionId);
+        return true;
+    }
+
+    /**
+     * 브랜치에 남아 있는 최근 메시지를 오래된 순서로 반환합니다.
+     */
+    public List<TALKiMessageData> getRecentMessages(String branchId) {
+        BranchEntry entry = branches.get(branchId);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        synchronized (entry) {
+            return new ArrayList<>(entry.messages);
+        }
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    // ===== 제거 =====
+
+    void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            long cutoff = now - idleTtlMillis;
+
+            Predicate<String> isLive = liveSessionCheck;
+            Set<String> evictedSessions = new HashSet<>();
+            sessions.entrySet().removeIf(e -> {
+                if (e.getValue().lastAccessMillis < cutoff && !isLive.test(e.getKey())) {
+                    release(e.getValue());
+                    evictedSessions.add(e.getKey());
+                    idleEvictions.increment();
+                    return true;
+                }
+                return false;
+            });
+
+            if (sessions.size() > maxSessions) {
+                List<Map.Entry<String, SessionEntry>> lru = new ArrayList<>(sessions.entrySet());
+                lru.sort(Comparator.comparingLong(e -> e.getValue().lastAccessMillis));
+                int excess = sessions.size() - maxSessions;
+                for (Map.Entry<String, SessionEntry> e : lru) {
+                    if (excess <= 0) {
+                        break;
+                    }
+                    if (isLive.test(e.getKey())) {
+                        continue;
+                    }
+                    if (sessions.remove(e.getKey(), e.getValue())) {
+                        release(e.getValue());
+                        evictedSessions.add(e.getKey());
+                        capacityEvictions.increment();
+                        excess--;
+                    }
+                }
+            }
+
+            // 유휴 브랜치와 제거된 세션에 속한 브랜치를 함께 정리
+            branches.entrySet().removeIf(e -> {
+                BranchEntry entry = e.getValue();
+                if (entry.lastAccessMillis < cutoff
+                        && (entry.branch.sessionId == null || !isLive.test(entry.branch.sessionId))) {
+                    evictBranch(e.getKey(), entry);
+                    idleEvictions.increment();
+                    return true;
+                }
+                if (entry.branch.sessionId != null && evictedSessions.contains(entry.branch.sessionId)) {
+                    evictBranch(e.getKey(), entry);
+                    return true;
+                }
+                return false;
+            });
+
+            if (estimatedBytes.get() > heapBudgetBytes) {
+                List<Map.Entry<String, BranchEntry>> lru = new ArrayList<>(branches.entrySet());
+                lru.sort(Comparator.comparingLong(e -> e.getValue().lastAccessMillis));
+                for (Map.Entry<String, BranchEntry> e : lru) {
+                    if (estimatedBytes.get() <= heapBudgetBytes) {
+                        break;
+                    }
+                    if (branches.remove(e.getKey(), e.getValue())) {
+                        evictBranch(e.getKey(), e.getValue());
+                        budgetEvictions.increment();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("메모리 저장소 정리 중 오류", e);
+        }
+    }
+
+    private void evictBranch(String branchId, BranchEntry entry) {
+        release(entry);
+        sequenceAllocator.forget(branchId);
+    }
+
+    private void release(BranchEntry entry) {
+        synchronized (entry) {
+            if (entry.released) {
+                return;
+            }
+            entry.released = true;
+            estimatedBytes.addAndGet(-(entry.bytes + BRANCH_OVERHEAD_BYTES));
+            messageCount.addAndGet(-entry.messages.size());
+            entry.messages.clear();
+            entry.bytes = 0;
+        }
+    }
+
+    private void release(SessionEntry entry) {
+        synchronized (entry) {
+            if (entry.released) {
+                return;
+            }
+            entry.released = true;
+            estimatedBytes.addAndGet(-entry.bytes);
+            entry.bytes = 0;
+        }
+    }
+
+    private void touchSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry != null) {
+            entry.touch();
+        }
+    }
+
+    private static long estimateSize(TALKiMessageData message) {
+        return MESSAGE_OVERHEAD_BYTES
+                + 2L * (length(message.messageId) + length(message.branchId) + length(message.characterId)
+                + length(message.content) + length(message.messageType) + length(message.emotion)
+                + length(message.animation));
+    }
+
+    private static long estimateSize(TALKiParticipantData participant) {
+        return PARTICIPANT_OVERHEAD_BYTES
+                + 2L * (length(participant.participantId) + length(participant.participantName)
+                + length(participant.participantType));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static final class SessionEntry {
+        private final TALKiSessionData session;
+        // 참가자 정보의 추정 크기 (this 동기화 안에서 갱신)
+        private long bytes;
+        private boolean released;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private SessionEntry(TALKiSessionData session) {
+            this.session = session;
+        }
+
+        private void touch() {
+            lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+
+    private static final class BranchEntry {
+        private final TALKiBranchData branch;
+        private final ArrayDeque<TALKiMessageData> messages = new ArrayDeque<>();
+        private long bytes;
+        private boolean released;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private BranchEntry(TALKiBranchData branch) {
+            this.branch = branch;
+        }
+
+        private void touch() {
+            lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+
+    // Simple data classes for in-memory storage
+    static class TALKiSessionData {
+        String sessionId;
+        String sessionName;
+        LocalDateTime createdAt;
+        Boolean isActive;
+        // participantId -> 참가자 (재참여 시 대체, 연결 종료 시 제거)
+        Map<String, TALKiParticipantData> participants;
+    }
+
+    static class TALKiParticipantData {
+        String participantId;
+        String participantName;
+        String participantType;
+        LocalDateTime joinedAt;
+        Boolean isActive;
+    }
+
+    static class TALKiBranchData {
+        String branchId;
+        String sessionId;
+        String branchName;
+        String description;
+        String branchType;
+        String createdBy;
+        LocalDateTime createdAt;
+        Boolean isActive;
+        String parentBranchId;
+    }
+
+    static class TALKiMessageData {
+        String messageId;
+        String branchId;
+        String characterId;
+        String content;
+        String messageType;
+        String emotion;
+        String animation;
+        LocalDateTime timestamp;
+        Integer sequenceNumber;
+    }
+}
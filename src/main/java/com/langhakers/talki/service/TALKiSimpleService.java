@@ -1,15 +1,20 @@
 package com.langhakers.talki.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.langhakers.talki.dto.*;
 import com.langhakers.talki.entity.ChatMessage;
 import com.langhakers.talki.entity.Speaker;
 import com.langhakers.talki.repository.ChatMessageRepository;
+import com.langhakers.talki.service.TALKiSessionStore.TALKiBranchData;
+import com.langhakers.talki.service.TALKiSessionStore.TALKiMessageData;
+import com.langhakers.talki.service.TALKiSessionStore.TALKiParticipantData;
+import com.langhakers.talki.service.TALKiSessionStore.TALKiSessionData;
+import com.langhakers.talki.websocket.ParticipantSessionRegistry;
+import com.langhakers.talki.websocket.WebSocketBroadcaster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -21,33 +26,48 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TALKiSimpleService {
     
     private static final Logger logger = LoggerFactory.getLogger(TALKiSimpleService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final ChatMessageRepository chatMessageRepository;
+    private final WebSocketBroadcaster broadcaster;
+    private final ChatMessageWriteBehindService writeBehindService;
+    private final BranchSequenceAllocator sequenceAllocator;
+    private final TALKiSessionStore store;
+    private final RoomEventPublisher roomEventPublisher;
     
-    // Active WebSocket sessions mapped by participant ID
-    private final Map<String, WebSocketSession> activeSessions = new ConcurrentHashMap<>();
-    // Session participants mapped by session ID
-    private final Map<String, Set<String>> sessionParticipants = new ConcurrentHashMap<>();
-    // Session data storage
-    private final Map<String, TALKiSessionData> sessions = new ConcurrentHashMap<>();
-    // Branch data storage
-    private final Map<String, TALKiBranchData> branches = new ConcurrentHashMap<>();
-    // Message storage
-    private final Map<String, List<TALKiMessageData>> branchMessages = new ConcurrentHashMap<>();
+    // Participant <-> session registry (WebSocket connections and session membership)
+    private final ParticipantSessionRegistry participantRegistry = new ParticipantSessionRegistry();
     
     @Autowired
-    public TALKiSimpleService(ChatMessageRepository chatMessageRepository) {
+    public TALKiSimpleService(ChatMessageRepository chatMessageRepository, WebSocketBroadcaster broadcaster,
+                              ChatMessageWriteBehindService writeBehindService,
+                              BranchSequenceAllocator sequenceAllocator, TALKiSessionStore store,
+                              RoomEventPublisher roomEventPublisher) {
         this.chatMessageRepository = chatMessageRepository;
+        this.broadcaster = broadcaster;
+        this.writeBehindService = writeBehindService;
+        this.sequenceAllocator = sequenceAllocator;
+        this.store = store;
+        // 참가자가 연결된 세션은 메시지가 없어도 메모리에서 제거하지 않음
+        store.setLiveSessionCheck(sessionId -> !participantRegistry.getParticipants(sessionId).isEmpty());
+        this.roomEventPublisher = roomEventPublisher;
     }
     
     public void registerSession(String participantId, WebSocketSession session) {
-        activeSessions.put(participantId, session);
+        participantRegistry.connect(participantId, session);
     }
     
     public void unregisterSession(String participantId) {
-        activeSessions.remove(participantId);
-        // Remove from all session participants
-        sessionParticipants.values().forEach(participants -> participants.remove(participantId));
+        removeParticipant(participantId, participantRegistry.disconnect(participantId));
+    }
+    
+    public void unregisterSession(String participantId, WebSocketSession session) {
+        // Ignored if the participant already reconnected with a newer connection
+        removeParticipant(participantId, participantRegistry.disconnect(participantId, session));
+    }
+    
+    private void removeParticipant(String participantId, Set<String> leftSessionIds) {
+        for (String sessionId : leftSessionIds) {
+            store.removeParticipant(sessionId, participantId);
+        }
     }
     
     public TALKiResponseDTO handleJoinSession(TALKiJoinSessionDTO joinRequest) {
@@ -55,13 +75,13 @@ public class TALKiSimpleService {
         String participantId = joinRequest.getParticipantId();
         
         // Find or create session
-        TALKiSessionData session = sessions.computeIfAbsent(sessionId, k -> {
+        TALKiSessionData session = store.getOrCreateSession(sessionId, k -> {
             TALKiSessionData newSession = new TALKiSessionData();
             newSession.sessionId = sessionId;
             newSession.sessionName = "TALKi Session " + sessionId;
             newSession.createdAt = LocalDateTime.now();
             newSession.isActive = true;
-            newSession.participants = new ArrayList<>();
+            newSession.participants = new ConcurrentHashMap<>();
             return newSession;
         });
         
@@ -73,10 +93,10 @@ public class TALKiSimpleService {
         participant.joinedAt = LocalDateTime.now();
         participant.isActive = true;
         
-        session.participants.add(participant);
+        store.putParticipant(sessionId, participant);
         
         // Add to session participants tracking
-        sessionParticipants.computeIfAbsent(sessionId, k -> new HashSet<>()).add(participantId);
+        participantRegistry.join(sessionId, participantId);
         
         // Notify other participants
         broadcastToSession(sessionId, createParticipantJoinedMessage(participant), participantId);
@@ -88,7 +108,7 @@ public class TALKiSimpleService {
         String sessionId = branchRequest.getSessionId();
         String branchId = UUID.randomUUID().toString();
         
-        TALKiSessionData session = sessions.get(sessionId);
+        TALKiSessionData session = store.getSession(sessionId);
         if (session == null) {
             return TALKiResponseDTO.error("SESSION_NOT_FOUND", "Session not found");
         }
@@ -104,8 +124,7 @@ public class TALKiSimpleService {
         branch.isActive = true;
         branch.parentBranchId = branchRequest.getParentBranchId();
         
-        branches.put(branchId, branch);
-        branchMessages.put(branchId, new ArrayList<>());
+        store.putBranch(branch);
         
         // Notify session participants
         broadcastToSession(sessionId, createBranchCreatedMessage(branch), null);
@@ -113,7 +132,6 @@ public class TALKiSimpleService {
         return TALKiResponseDTO.success("BRANCH_CREATED", createBranchInfoDTO(branch));
     }
     
-    @Transactional
     public TALKiResponseDTO handleCharacterMessage(TALKiCharacterMessageDTO messageRequest) {
         try {
             String sessionId = messageRequest.getSessionId();
@@ -142,20 +160,20 @@ public class TALKiSimpleService {
             }
             
             // 브랜치가 메모리에 없으면 생성
-            if (!branches.containsKey(branchId)) {
-                logger.info("🔧 브랜치가 없어서 자동 생성: {}", branchId);
+            final String resolvedSessionId = sessionId;
+            store.getOrCreateBranch(branchId, id -> {
+                logger.info("🔧 브랜치가 없어서 자동 생성: {}", id);
                 TALKiBranchData branch = new TALKiBranchData();
-                branch.branchId = branchId;
-                branch.sessionId = sessionId;
+                branch.branchId = id;
+                branch.sessionId = resolvedSessionId;
                 branch.branchName = "Auto-created branch";
                 branch.description = "Automatically created for TALKi integration";
                 branch.branchType = "MAIN";
                 branch.createdBy = "system";
                 branch.createdAt = LocalDateTime.now();
                 branch.isActive = true;
-                branches.put(branchId, branch);
-                branchMessages.put(branchId, new ArrayList<>());
-            }
+                return branch;
+            });
             
             // 💾 실제 데이터베이스에 저장
             ChatMessage chatMessage = new ChatMessage();
@@ -164,24 +182,38 @@ public class TALKiSimpleService {
             chatMessage.setSenderName(getSenderName(characterId));
             chatMessage.setContent(content);
             
-            ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-            logger.info("✅ DB에 메시지 저장 성공: id={}, roomId={}, senderId={}, content length={}", 
-                       savedMessage.getId(), savedMessage.getRoomId(), savedMessage.getSenderId(), content.length());
+            // 순번은 저장(또는 대기열 등록)이 성공했을 때만 확정되고, 행에도 함께 기록되어 재시작 후 이어서 발급됨
+            final String resolvedBranchId = branchId;
+            ChatMessage saved = sequenceAllocator.allocate(branchId, sequence -> {
+                chatMessage.setSequenceNumber(sequence);
+                if (writeBehindService.isEnabled()) {
+                    // write-behind: ID와 시각을 메모리에서 부여하고 DB 저장은 배치로 미룸
+                    // 응답/브로드캐스트에 쓰는 ID를 messageKey로 함께 저장해 나중에 행을 찾을 수 있게 함
+                    chatMessage.setMessageKey(UUID.randomUUID().toString());
+                    chatMessage.setTimestamp(LocalDateTime.now());
+                    writeBehindService.enqueue(chatMessage);
+                    logger.debug("📥 메시지 저장 대기열 등록: messageId={}, roomId={}", chatMessage.getMessageKey(), resolvedBranchId);
+                    return chatMessage;
+                }
+                ChatMessage persisted = chatMessageRepository.save(chatMessage);
+                logger.info("✅ DB에 메시지 저장 성공: id={}, roomId={}, senderId={}, content length={}", 
+                           persisted.getId(), persisted.getRoomId(), persisted.getSenderId(), content.length());
+                return persisted;
+            });
+            String messageId = saved.getMessageKey() != null ? saved.getMessageKey() : saved.getId().toString();
             
             // 메모리에도 저장 (기존 로직 유지)
             TALKiMessageData message = new TALKiMessageData();
-            message.messageId = savedMessage.getId().toString();
+            message.messageId = messageId;
             message.branchId = branchId;
             message.characterId = characterId;
             message.content = content;
             message.messageType = messageType;
             message.emotion = messageRequest.getEmotion();
             message.animation = messageRequest.getAnimation();
-            message.timestamp = savedMessage.getTimestamp();
-            
-            List<TALKiMessageData> messages = branchMessages.get(branchId);
-            message.sequenceNumber = messages.size() + 1;
-            messages.add(message);
+            message.timestamp = saved.getTimestamp();
+            message.sequenceNumber = saved.getSequenceNumber();
+            store.appendMessage(branchId, message);
             
             // Broadcast message to session participants
             TALKiMessageDTO broadcastMessage = new TALKiMessageDTO();
@@ -201,7 +233,7 @@ public class TALKiSimpleService {
     public TALKiResponseDTO handleTTSConfiguration(TALKiTTSConfigDTO ttsRequest) {
         String sessionId = ttsRequest.getSessionId();
         
-        TALKiSessionData session = sessions.get(sessionId);
+        TALKiSessionData session = store.getSession(sessionId);
         if (session == null) {
             return TALKiResponseDTO.error("SESSION_NOT_FOUND", "Session not found");
         }
@@ -239,22 +271,34 @@ public class TALKiSimpleService {
     }
     
     private void broadcastToSession(String sessionId, TALKiMessageDTO message, String excludeParticipantId) {
-        Set<String> participants = sessionParticipants.get(sessionId);
-        if (participants != null) {
-            for (String participantId : participants) {
-                if (!participantId.equals(excludeParticipantId)) {
-                    WebSocketSession session = activeSessions.get(participantId);
-                    if (session != null && session.isOpen()) {
-                        try {
-                            String messageJson = objectMapper.writeValueAsString(message);
-                            session.sendMessage(new TextMessage(messageJson));
-                        } catch (Exception e) {
-                            System.err.println("Failed to send message to participant " + participantId + ": " + e.getMessage());
-                        }
-                    }
-                }
-            }
+        List<WebSocketSession> recipients = participantRegistry.getConnections(sessionId, excludeParticipantId);
+        if (!roomEventPublisher.isEnabled()) {
+            // 수신자 수와 관계없이 JSON 인코딩은 한 번만 수행
+            broadcaster.broadcast(message, recipients);
+            return;
+        }
+        TextMessage frame;
+        try {
+            frame = broadcaster.encode(message);
+        } catch (JsonProcessingException e) {
+            logger.error("브로드캐스트 메시지 인코딩 실패: sessionId={}", sessionId, e);
+            return;
         }
+        // 이 파드의 참가자에게 먼저 전달하고, 같은 프레임을 다른 파드로 발행
+        broadcaster.fanOut(frame, recipients);
+        roomEventPublisher.publish(sessionId, excludeParticipantId, frame.asBytes());
+    }
+    
+    /**
+     * 다른 파드에서 발행된 룸 이벤트를 이 파드에 연결된 세션 참가자에게 전달합니다.
+     * @return 전달된 수신자 수
+     */
+    public int deliverRoomEvent(String sessionId, String excludeParticipantId, byte[] payload) {
+        List<WebSocketSession> recipients = participantRegistry.getConnections(sessionId, excludeParticipantId);
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        return broadcaster.fanOut(new TextMessage(payload), recipients);
     }
     
     private TALKiMessageDTO createParticipantJoinedMessage(TALKiParticipantData participant) {
@@ -318,45 +362,4 @@ public class TALKiSimpleService {
         dto.setSequenceNumber(message.sequenceNumber);
         return dto;
     }
-    
-    // Simple data classes for in-memory storage
-    private static class TALKiSessionData {
-        String sessionId;
-        String sessionName;
-        LocalDateTime createdAt;
-        Boolean isActive;
-        List<TALKiParticipantData> participants;
-    }
-    
-    private static class TALKiParticipantData {
-        String participantId;
-        String participantName;
-        String participantType;
-        LocalDateTime joinedAt;
-        Boolean isActive;
-    }
-    
-    private static class TALKiBranchData {
-        String branchId;
-        String sessionId;
-        String branchName;
-        String description;
-        String branchType;
-        String createdBy;
-        LocalDateTime createdAt;
-        Boolean isActive;
-        String parentBranchId;
-    }
-    
-    private static class TALKiMessageData {
-        String messageId;
-        String branchId;
-        String characterId;
-        String content;
-        String messageType;
-        String emotion;
-        String animation;
-        LocalDateTime timestamp;
-        Integer sequenceNumber;
-    }
-}
\ No newline at end of file
+}
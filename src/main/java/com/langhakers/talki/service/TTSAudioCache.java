@@ -0,0 +1,499 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.AudioRequest;
+import com.langhakers.talki.dto.TTSSynthesisRequest;
+import com.langhakers.talki.entity.AudioData;
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.repository.AudioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 합성된 TTS 오디오 캐시. 키는 (제공업체, 음성, 언어, 속도, 피치, 볼륨, 포맷, 샘플레이트, 텍스트)의 SHA-256입니다.
+ * - 메모리 계층: 자주 쓰이는 클립의 바이트를 LRU로 보관 (memory-max-mb)
+ * - 디스크 계층: 오디오 저장 디렉터리의 tts_&lt;key&gt;.&lt;ext&gt; 파일을 LRU로 보관 (disk-max-mb)
+ * 디스크 파일마다 AudioData 행이 있으므로 캐시 적중 시 스트리밍 세션에 audioDataId를 바로 연결할 수 있습니다.
+ * AudioData ID는 디스크 색인에 함께 보관하므로 적중 시 DB를 다시 조회하지 않습니다.
+ * 디스크 계층에서 제거된 파일의 AudioData 행은 발화 등이 참조할 수 있으므로 지우지 않고 evictedAt으로 표시합니다.
+ * 새 클립 저장(파일 기록과 AudioData 생성)은 전용 스레드에서 비동기로 수행하여 스트리밍 스레드를 막지 않습니다.
+ */
+@Component
+public class TTSAudioCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TTSAudioCache.class);
+    private static final Pattern CACHE_FILE = Pattern.compile("tts_([0-9a-f]{64})\\.([a-z0-9]+)");
+
+    private final Path fileBasePath = Paths.get("./audio_files").toAbsolutePath().normalize();
+    private final AudioService audioService;
+    private final AudioRepository audioRepository;
+    private final boolean enabled;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final long maxClipBytes;
+
+    // 접근 순서 LinkedHashMap (가장 오래 사용되지 않은 항목이 맨 앞). 모두 this로 동기화
+    private final LinkedHashMap<String, MemoryClip> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, DiskClip> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private final Counter memoryHitCounter;
+    private final Counter diskHitCounter;
+    private final Counter missCounter;
+    private final Counter memoryEvictionCounter;
+    private final Counter diskEvictionCounter;
+    private final Counter storeDroppedCounter;
+
+    // 새 클립 저장 전용 스레드 (대기열이 가득 차면 캐시 저장을 건너뜀)
+    private final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(256), runnable -> {
+                Thread thread = new Thread(runnable, "tts-cache-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @Autowired
+    public TTSAudioCache(AudioService audioService,
+                         AudioRepository audioRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${talki.tts.cache.enabled:true}") boolean enabled,
+                         @Value("${talki.tts.cache.memory-max-mb:32}") long memoryMaxMb,
+                         @Value("${talki.tts.cache.disk-max-mb:512}") long diskMaxMb,
+                         @Value("${talki.tts.cache.max-clip-mb:4}") long maxClipMb) {
+        this.audioService = audioService;
+        this.audioRepository = audioRepository;
+        this.enabled = enabled;
+        this.memoryMaxBytes = memoryMaxMb * 1024 * 1024;
+        this.diskMaxBytes = diskMaxMb * 1024 * 1024;
+        this.maxClipBytes = maxClipMb * 1024 * 1024;
+
+        Gauge.builder("talki.tts.cache.memory.bytes", this, cache -> cache.memoryBytes)
+                .description("메모리 계층에 보관된 TTS 오디오 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("talki.tts.cache.disk.bytes", this, cache -> cache.diskBytes)
+                .description("디스크 계층에 보관된 TTS 오디오 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.memoryHitCounter = requestCounter(meterRegistry, "memory-hit");
+        this.diskHitCounter = requestCounter(meterRegistry, "disk-hit");
+        this.missCounter = requestCounter(meterRegistry, "miss");
+        this.memoryEvictionCounter = evictionCounter(meterRegistry, "memory");
+        this.diskEvictionCounter = evictionCounter(meterRegistry, "disk");
+        this.storeDroppedCounter = Counter.builder("talki.tts.cache.store-dropped")
+                .description("저장 대기열 초과로 캐시에 저장하지 못한 클립 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("talki.tts.cache.requests")
+                .description("TTS 오디오 캐시 조회 수")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("talki.tts.cache.evictions")
+                .description("TTS 오디오 캐시에서 제거된 클립 수")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 기존 캐시 파일로 디스크 계층 색인을 만듭니다. 마지막 수정 시각 순으로 LRU 순서를 정합니다.
+     */
+    @PostConstruct
+    public void loadIndex() {
+        if (!enabled || !Files.isDirectory(fileBasePath)) {
+            return;
+        }
+        List<Object[]> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(fileBasePath, "tts_*")) {
+            for (Path file : files) {
+                Matcher matcher = CACHE_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    found.add(new Object[]{matcher.group(1), file.getFileName().toString(),
+                            Files.size(file), Files.getLastModifiedTime(file).toMillis()});
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("TTS 캐시 색인 생성 실패: {}", e.getMessage());
+            return;
+        }
+        found.sort((a, b) -> Long.compare((Long) a[3], (Long) b[3]));
+        List<DiskClip> evicted;
+        synchronized (this) {
+            for (Object[] entry : found) {
+                // AudioData ID는 처음 적중할 때 한 번만 조회해 채움
+                disk.put((String) entry[0], new DiskClip((String) entry[1], (Long) entry[2], null, null));
+                diskBytes += (Long) entry[2];
+            }
+            evicted = evictDisk();
+        }
+        deleteEvicted(evicted);
+        logger.info("TTS 캐시 색인 로드: files={}, bytes={}", disk.size(), diskBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxClipBytes() {
+        return maxClipBytes;
+    }
+
+    public String keyOf(TTSSynthesisRequest request) {
+        String canonical = String.join("\u0000",
+                String.valueOf(request.getProvider()),
+                String.valueOf(request.getVoiceId()),
+                String.valueOf(request.getLanguage()),
+                String.valueOf(request.getSpeed()),
+                String.valueOf(request.getPitch()),
+                String.valueOf(request.getVolume()),
+                String.valueOf(request.getAudioFormat()),
+                String.valueOf(request.getSampleRate()),
+                String.valueOf(request.getText()));
+        return HexFormat.of().formatHex(sha256().digest(canonical.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 캐시된 클립을 찾습니다. 디스크 계층에서 찾은 클립은 메모리 계층으로 올립니다.
+     * @return 없으면 null
+     */
+    public CachedClip lookup(String key) {
+        if (!enabled) {
+            return null;
+        }
+        MemoryClip hot;
+        DiskClip cold;
+        synchronized (this) {
+            hot = memory.get(key);
+            // 메모리 적중이어도 디스크 색인의 접근 순서를 갱신해 자주 쓰는 클립이 디스크에서 먼저 지워지지 않게 함
+            DiskClip indexed = disk.get(key);
+            cold = hot == null ? indexed : null;
+        }
+        if (hot != null) {
+            memoryHitCounter.increment();
+            return new CachedClip(hot.audioDataId, hot.format, hot.durationMs, hot.audio, null);
+        }
+        if (cold == null) {
+            missCounter.increment();
+            return null;
+        }
+
+        Path file = fileBasePath.resolve(cold.fileName);
+        AudioFormat format = AudioFormat.fromFilename(cold.fileName);
+        if (cold.audioDataId == null) {
+            cold = resolveAudioData(key, cold);
+        }
+        if (cold == null || format == null || !Files.isRegularFile(file)) {
+            // 파일이나 AudioData 행이 사라진 경우 색인에서 제거하고 다시 합성
+            synchronized (this) {
+                DiskClip indexed = disk.get(key);
+                if (indexed != null && indexed.fileName.equals(file.getFileName().toString())) {
+                    disk.remove(key);
+                    diskBytes -= indexed.sizeBytes;
+                }
+            }
+            missCounter.increment();
+            return null;
+        }
+        diskHitCounter.increment();
+        if (cold.sizeBytes <= maxClipBytes) {
+            try {
+                byte[] audio = Files.readAllBytes(file);
+                putMemory(key, new MemoryClip(cold.audioDataId, format, cold.durationMs, audio));
+                return new CachedClip(cold.audioDataId, format, cold.durationMs, audio, null);
+            } catch (IOException e) {
+                logger.debug("TTS 캐시 파일 읽기 실패, 파일에서 직접 전송: {}", e.getMessage());
+            }
+        }
+        return new CachedClip(cold.audioDataId, format, cold.durationMs, null, file);
+    }
+
+    /**
+     * 기동 시 색인에 올린 파일의 AudioData를 조회해 색인 항목에 ID를 채웁니다.
+     * @return ID가 채워진 항목, 행이 없으면 null
+     */
+    private DiskClip resolveAudioData(String key, DiskClip cold) {
+        AudioData audioData = audioRepository.findFirstByFileName(cold.fileName).orElse(null);
+        if (audioData == null) {
+            return null;
+        }
+        DiskClip resolved = new DiskClip(cold.fileName, cold.sizeBytes, audioData.getId(), audioData.getDurationMillis());
+        synchronized (this) {
+            // 그 사이 제거되거나 교체되지 않았을 때만 반영 (LRU 순서는 get으로 이미 갱신됨)
+            if (disk.get(key) == cold) {
+                disk.put(key, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * 새 클립을 전용 스레드에서 디스크와 메모리 계층에 저장합니다. 호출 스레드는 기다리지 않습니다.
+     * 저장 대기열이 가득 차면 저장을 건너뜁니다.
+     * @param onStored 저장이 끝나면 연결된 AudioData ID로 호출 (전용 스레드에서 실행)
+     */
+    public void storeAsync(String key, AudioFormat format, byte[] audio, long durationMs, Consumer<Long> onStored) {
+        try {
+            writer.execute(() -> {
+                try {
+                    onStored.accept(store(key, format, audio, durationMs));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("TTS 오디오 캐시 저장 실패: key={}, error={}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            storeDroppedCounter.increment();
+            logger.debug("TTS 캐시 저장 대기열 초과로 저장 생략: key={}", key);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 합성이 끝난 클립을 디스크와 메모리 계층에 저장하고 AudioData 행을 연결합니다.
+     * @return 연결된 AudioData ID
+     */
+    public Long store(String key, AudioFormat format, byte[] audio, long durationMs) throws IOException {
+        if (!Files.exists(fileBasePath)) {
+            Files.createDirectories(fileBasePath);
+        }
+        String fileName = "tts_" + key + "." + format.getExtension();
+        Path target = fileBasePath.resolve(fileName);
+        Path tempFile = fileBasePath.resolve(".tts-" + UUID.randomUUID() + ".tmp");
+        try {
+            Files.write(tempFile, audio, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        // 같은 클립이 이전에 저장되었다가 디스크에서만 제거된 경우 기존 행을 재사용
+        Long audioDataId = audioRepository.findFirstByFileName(fileName)
+                .map(existing -> {
+                    if (existing.getEvictedAt() != null) {
+                        audioRepository.clearEvicted(existing.getId());
+                    }
+                    return existing.getId();
+                })
+                .orElseGet(() -> {
+                    AudioRequest request = new AudioRequest();
+                    request.setFileName(fileName);
+                    request.setDurationMillis(durationMs);
+                    request.setContentHash(HexFormat.of().formatHex(sha256().digest(audio)));
+                    request.setSizeBytes((long) audio.length);
+                    return audioService.createAudio(request, "/audio/files/" + fileName).getId();
+                });
+
+        List<DiskClip> evicted;
+        synchronized (this) {
+            DiskClip previous = disk.put(key, new DiskClip(fileName, audio.length, audioDataId, durationMs));
+            if (previous != null) {
+                diskBytes -= previous.sizeBytes;
+            }
+            diskBytes += audio.length;
+            evicted = evictDisk();
+        }
+        deleteEvicted(evicted);
+        if (audio.length <= maxClipBytes) {
+            putMemory(key, new MemoryClip(audioDataId, format, durationMs, audio));
+        }
+        return audioDataId;
+    }
+
+    private synchronized void putMemory(String key, MemoryClip clip) {
+        MemoryClip previous = memory.put(key, clip);
+        if (previous != null) {
+            memoryBytes -= previous.audio.length;
+        }
+        memoryBytes += clip.audio.length;
+        Iterator<Map.Entry<String, MemoryClip>> it = memory.entrySet().iterator();
+        while (memoryBytes > memoryMaxBytes && it.hasNext()) {
+            Map.Entry<String, MemoryClip> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            memoryBytes -= eldest.getValue().audio.length;
+            it.remove();
+            memoryEvictionCounter.increment();
+        }
+    }
+
+    /**
+     * 용량을 넘은 만큼 색인에서 제거하고 제거된 항목을 반환합니다. this 동기화 안에서 호출하며,
+     * 파일 삭제와 DB 갱신은 잠금 밖에서 deleteEvicted로 수행합니다.
+     */
+    private List<DiskClip> evictDisk() {
+        List<DiskClip> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, DiskClip>> it = disk.entrySet().iterator();
+        while (diskBytes > diskMaxBytes && it.hasNext()) {
+            Map.Entry<String, DiskClip> eldest = it.next();
+            DiskClip clip = eldest.getValue();
+            evicted.add(clip);
+            diskBytes -= clip.sizeBytes;
+            MemoryClip hot = memory.remove(eldest.getKey());
+            if (hot != null) {
+                memoryBytes -= hot.audio.length;
+            }
+            it.remove();
+            diskEvictionCounter.increment();
+        }
+        return evicted;
+    }
+
+    private void deleteEvicted(List<DiskClip> evicted) {
+        if (evicted.isEmpty()) {
+            return;
+        }
+        List<String> fileNames = new ArrayList<>(evicted.size());
+        for (DiskClip clip : evicted) {
+            try {
+                Files.deleteIfExists(fileBasePath.resolve(clip.fileName));
+                fileNames.add(clip.fileName);
+            } catch (IOException e) {
+                logger.warn("TTS 캐시 파일 삭제 실패: {}", clip.fileName, e);
+            }
+        }
+        if (fileNames.isEmpty()) {
+            return;
+        }
+        try {
+            audioRepository.markEvicted(fileNames, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.warn("TTS 캐시 제거 표시 실패: files={}, error={}", fileNames.size(), e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
+
+    /**
+     * 캐시에서 찾은 클립. 메모리 계층이면 audio, 디스크 계층이면 file로 전송합니다.
+     */
+    @Getter
+    public static class CachedClip {
+        private final Long audioDataId;
+        private final AudioFormat format;
+        private final long durationMs;
+        private final byte[] audio;
+        private final Path file;
+
+        private CachedClip(Long audioDataId, AudioFormat format, Long durationMs, byte[] audio, Path file) {
+            this.audioDataId = audioDataId;
+            this.format = format;
+            this.durationMs = durationMs != null ? durationMs : 0L;
+            this.audio = audio;
+            this.file = file;
+        }
+
+        /**
+         * @return 전송한 바이트 수
+         */
+        public long writeTo(OutputStream out) throws IOException {
+            if (audio != null) {
+                out.write(audio);
+                out.flush();
+                return audio.length;
+            }
+            // 대상이 일반 OutputStream이므로 transferTo는 내부 버퍼로 복사합니다 (제로 카피 아님).
+            // 힙에 파일 전체를 올리지 않는 스트리밍 전송이며, 제로 카피는 AudioFileSender의 Tomcat sendfile 경로에서만 적용됩니다.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    long written = channel.transferTo(position, size - position, target);
+                    if (written <= 0) {
+                        break;
+                    }
+                    position += written;
+                }
+                out.flush();
+                return position;
+            }
+        }
+    }
+
+    private static final class MemoryClip {
+        private final Long audioDataId;
+        private final AudioFormat format;
+        private final Long durationMs;
+        private final byte[] audio;
+
+        private MemoryClip(Long audioDataId, AudioFormat format, Long durationMs, byte[] audio) {
+            this.audioDataId = audioDataId;
+            this.format = format;
+            this.durationMs = durationMs;
+            this.audio = audio;
+        }
+    }
+
+    private static final class DiskClip {
+        private final String fileName;
+        private final long sizeBytes;
+        // 기동 시 색인에 올린 파일은 처음 적중할 때까지 null
+        private final Long audioDataId;
+        private final Long durationMs;
+
+        private DiskClip(String fileName, long sizeBytes, Long audioDataId, Long durationMs) {
+            this.fileName = fileName;
+            this.sizeBytes = sizeBytes;
+            this.audioDataId = audioDataId;
+            this.durationMs = durationMs;
+        }
+    }
+}
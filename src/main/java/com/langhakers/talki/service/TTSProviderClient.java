@@ -0,0 +1,38 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.TTSSynthesisRequest;
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.TTSProvider;
+
+import java.io.IOException;
+
+/**
+ * TTS 제공업체 클라이언트. 구현체를 Spring 빈으로 등록하면 제공업체별로 자동 연결됩니다.
+ * 합성된 오디오는 도착하는 즉시 청크 단위로 sink에 전달해야 합니다.
+ */
+public interface TTSProviderClient {
+
+    TTSProvider getProvider();
+
+    /**
+     * 요청에 대해 실제로 생성되는 오디오 포맷 (요청 포맷을 지원하지 않는 경우 다를 수 있음)
+     */
+    default AudioFormat getOutputFormat(TTSSynthesisRequest request) {
+        return request.getAudioFormat();
+    }
+
+    /**
+     * 텍스트를 합성하여 청크를 순서대로 sink에 전달합니다. 모든 청크를 전달한 뒤 반환합니다.
+     * sink에서 발생한 IOException(클라이언트 연결 종료 등)은 그대로 전파해야 합니다.
+     */
+    void synthesize(TTSSynthesisRequest request, ChunkSink sink) throws IOException;
+
+    @FunctionalInterface
+    interface ChunkSink {
+        /**
+         * @param chunk      오디오 바이트 (호출 후 재사용될 수 있으므로 보관하려면 복사)
+         * @param durationMs 청크에 담긴 오디오 길이 (헤더 등은 0)
+         */
+        void accept(byte[] chunk, long durationMs) throws IOException;
+    }
+}
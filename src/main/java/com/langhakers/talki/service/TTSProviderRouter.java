@@ -0,0 +1,490 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.TTSSynthesisRequest;
+import com.langhakers.talki.entity.TTSProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TTS 제공업체 라우터. 후보(우선순위 순서의 라우팅 설정)를 차례로 시도합니다.
+ * - 제공업체별 첫 청크 타임아웃과 청크 간 타임아웃
+ * - 제공업체별 서킷 브레이커 (연속 실패 시 일정 시간 건너뜀)
+ * - 선택적 헤징: 첫 청크가 최근 p95 지연 안에 오지 않으면 다음 후보를 동시에 시작하고, 먼저 첫 청크를 낸 쪽을 사용
+ * 첫 청크가 클라이언트로 나간 뒤에는 다른 제공업체로 바꿀 수 없으므로 이후 실패는 그대로 전파됩니다.
+ */
+@Component
+public class TTSProviderRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TTSProviderRouter.class);
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int ATTEMPT_QUEUE_CAPACITY = 64;
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final long firstChunkTimeoutMs;
+    private final long chunkTimeoutMs;
+    private final boolean hedgeEnabled;
+    private final long hedgeDefaultDelayMs;
+    private final long hedgeMinDelayMs;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMillis;
+
+    private final Map<TTSProvider, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<TTSProvider, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public TTSProviderRouter(MeterRegistry meterRegistry,
+                             Environment environment,
+                             @Value("${talki.tts.router.first-chunk-timeout-ms:3000}") long firstChunkTimeoutMs,
+                             @Value("${talki.tts.router.chunk-timeout-ms:10000}") long chunkTimeoutMs,
+                             @Value("${talki.tts.router.hedge.enabled:false}") boolean hedgeEnabled,
+                             @Value("${talki.tts.router.hedge.default-delay-ms:1000}") long hedgeDefaultDelayMs,
+                             @Value("${talki.tts.router.hedge.min-delay-ms:50}") long hedgeMinDelayMs,
+                             @Value("${talki.tts.router.breaker.failure-threshold:5}") int breakerFailureThreshold,
+                             @Value("${talki.tts.router.breaker.open-seconds:30}") long breakerOpenSeconds,
+                             @Value("${talki.tts.router.max-threads:64}") int maxThreads) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.firstChunkTimeoutMs = firstChunkTimeoutMs;
+        this.chunkTimeoutMs = chunkTimeoutMs;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeDefaultDelayMs = hedgeDefaultDelayMs;
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMillis = TimeUnit.SECONDS.toMillis(breakerOpenSeconds);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "tts-provider-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 후보를 우선순위대로 시도하여 청크를 sink로 전달합니다.
+     * @return 실제로 오디오를 만든 후보
+     * @throws IOException sink 오류 (클라이언트 연결 종료)
+     * @throws RuntimeException 모든 후보가 실패했거나, 첫 청크 이후 제공업체가 실패한 경우
+     */
+    public Candidate route(List<Candidate> candidates, TTSProviderClient.ChunkSink sink) throws IOException {
+        Iterator<Candidate> pending = candidates.iterator();
+        List<Attempt> active = new ArrayList<>(2);
+        LinkedBlockingQueue<Attempt> firstEvents = new LinkedBlockingQueue<>();
+        boolean hedged = false;
+        Exception lastError = null;
+        Attempt winner = null;
+
+        try {
+            while (winner == null) {
+                if (active.isEmpty()) {
+                    Attempt next = startNext(pending, firstEvents);
+                    if (next == null) {
+                        throw new RuntimeException("All TTS providers failed", lastError);
+                    }
+                    active.add(next);
+                    hedged = false;
+                }
+
+                long now = System.nanoTime();
+                long deadline = Long.MAX_VALUE;
+                for (Attempt attempt : active) {
+                    deadline = Math.min(deadline, attempt.firstChunkDeadline);
+                }
+                long hedgeAt = Long.MAX_VALUE;
+                if (hedgeEnabled && !hedged && active.size() == 1 && pending.hasNext()) {
+                    Attempt first = active.get(0);
+                    hedgeAt = first.startNanos + TimeUnit.MILLISECONDS.toNanos(hedgeDelayMs(first.candidate.getProvider()));
+                    deadline = Math.min(deadline, hedgeAt);
+                }
+
+                Attempt ready = firstEvents.poll(Math.max(0, deadline - now), TimeUnit.NANOSECONDS);
+                if (ready == null || !active.contains(ready)) {
+                    now = System.nanoTime();
+                    Iterator<Attempt> it = active.iterator();
+                    while (it.hasNext()) {
+                        Attempt attempt = it.next();
+                        if (attempt.firstChunkDeadline <= now) {
+                            attempt.cancel();
+                            it.remove();
+                            recordFailure(attempt);
+                            outcome(attempt, "timeout");
+                            lastError = new RuntimeException(attempt.candidate.getProvider() + " first chunk timeout");
+                        }
+                    }
+                    if (hedgeAt <= now && active.size() == 1) {
+                        Attempt hedge = startNext(pending, firstEvents);
+                        if (hedge != null) {
+                            active.add(hedge);
+                            hedged = true;
+                            hedgeCounter(hedge.candidate.getProvider()).increment();
+                            logger.debug("TTS 헤지 요청 시작: {} -> {}", active.get(0).candidate.getProvider(),
+                                    hedge.candidate.getProvider());
+                        }
+                    }
+                    continue;
+                }
+
+                Object event = ready.queue.peek();
+                if (event instanceof Failure failure) {
+                    active.remove(ready);
+                    recordFailure(ready);
+                    outcome(ready, "failure");
+                    lastError = failure.error;
+                    logger.warn("TTS 제공업체 실패, 다음 후보 시도: provider={}, error={}",
+                            ready.candidate.getProvider(), failure.error.getMessage());
+                    continue;
+                }
+
+                winner = ready;
+                long firstChunkNanos = System.nanoTime() - winner.startNanos;
+                latencyWindow(winner.candidate.getProvider()).record(TimeUnit.NANOSECONDS.toMillis(firstChunkNanos));
+                Timer.builder("talki.tts.router.first-chunk")
+                        .description("TTS 제공업체 첫 청크 지연")
+                        .tag("provider", winner.candidate.getProvider().name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(firstChunkNanos, TimeUnit.NANOSECONDS);
+                for (Attempt other : active) {
+                    if (other != winner) {
+                        abandon(other);
+                        outcome(other, "cancelled");
+                    }
+                }
+            }
+
+            relay(winner, sink);
+            return winner.candidate;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("TTS 라우팅이 중단되었습니다.");
+        } finally {
+            // 클라이언트 연결 종료, 중단 등으로 결과 없이 끝난 시도도 시험 요청 자리를 돌려줌
+            for (Attempt attempt : active) {
+                abandon(attempt);
+            }
+        }
+    }
+
+    private void relay(Attempt winner, TTSProviderClient.ChunkSink sink) throws IOException, InterruptedException {
+        while (true) {
+            Object event = winner.queue.poll(chunkTimeoutMs, TimeUnit.MILLISECONDS);
+            if (event == null) {
+                recordFailure(winner);
+                outcome(winner, "timeout");
+                throw new RuntimeException(winner.candidate.getProvider() + " chunk timeout");
+            }
+            if (event instanceof Chunk chunk) {
+                sink.accept(chunk.data, chunk.durationMs);
+            } else if (event instanceof Failure failure) {
+                recordFailure(winner);
+                outcome(winner, "failure");
+                throw new RuntimeException(winner.candidate.getProvider() + " failed", failure.error);
+            } else {
+                recordSuccess(winner);
+                outcome(winner, "success");
+                Timer.builder("talki.tts.router.synthesis")
+                        .description("TTS 제공업체 전체 합성 시간")
+                        .tag("provider", winner.candidate.getProvider().name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - winner.startNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+        }
+    }
+
+    private Attempt startNext(Iterator<Candidate> pending, BlockingQueue<Attempt> firstEvents) {
+        while (pending.hasNext()) {
+            Candidate candidate = pending.next();
+            Permit permit = breaker(candidate.getProvider()).acquire();
+            if (permit == Permit.DENIED) {
+                outcomeCounter(candidate.getProvider(), "short-circuited").increment();
+                continue;
+            }
+            Attempt attempt = new Attempt(candidate, firstEvents,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(firstChunkTimeoutMs(candidate.getProvider())));
+            attempt.holdsTrial = permit == Permit.TRIAL;
+            try {
+                attempt.future = executor.submit(attempt::run);
+                return attempt;
+            } catch (RejectedExecutionException e) {
+                releaseTrial(attempt);
+                outcomeCounter(candidate.getProvider(), "rejected").increment();
+                logger.warn("TTS 제공업체 스레드 부족: provider={}", candidate.getProvider());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 헤지 지연 시간: 최근 첫 청크 지연의 p95 (표본이 부족하면 기본값)
+     */
+    long hedgeDelayMs(TTSProvider provider) {
+        long p95 = latencyWindow(provider).percentile(0.95, MIN_LATENCY_SAMPLES);
+        return p95 < 0 ? hedgeDefaultDelayMs : Math.max(hedgeMinDelayMs, p95);
+    }
+
+    private long firstChunkTimeoutMs(TTSProvider provider) {
+        // 제공업체별 재정의: talki.tts.router.first-chunk-timeout-ms.OPENAI=2000
+        return environment.getProperty("talki.tts.router.first-chunk-timeout-ms." + provider.name(),
+                Long.class, firstChunkTimeoutMs);
+    }
+
+    private void recordSuccess(Attempt attempt) {
+        attempt.holdsTrial = false;
+        breaker(attempt.candidate.getProvider()).recordSuccess();
+    }
+
+    private void recordFailure(Attempt attempt) {
+        attempt.holdsTrial = false;
+        breaker(attempt.candidate.getProvider()).recordFailure();
+    }
+
+    /**
+     * 성공/실패를 판단하지 않고 시도를 취소합니다. 시험 요청이었다면 다음 요청이 다시 시험할 수 있게 합니다.
+     */
+    private void abandon(Attempt attempt) {
+        attempt.cancel();
+        releaseTrial(attempt);
+    }
+
+    private void releaseTrial(Attempt attempt) {
+        if (attempt.holdsTrial) {
+            attempt.holdsTrial = false;
+            breaker(attempt.candidate.getProvider()).releaseTrial();
+        }
+    }
+
+    private CircuitBreaker breaker(TTSProvider provider) {
+        return breakers.computeIfAbsent(provider, p -> new CircuitBreaker());
+    }
+
+    private LatencyWindow latencyWindow(TTSProvider provider) {
+        return latencies.computeIfAbsent(provider, p -> new LatencyWindow());
+    }
+
+    private void outcome(Attempt attempt, String outcome) {
+        outcomeCounter(attempt.candidate.getProvider(), outcome).increment();
+    }
+
+    private Counter outcomeCounter(TTSProvider provider, String outcome) {
+        return Counter.builder("talki.tts.router.attempts")
+                .description("TTS 제공업체 시도 결과")
+                .tag("provider", provider.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter hedgeCounter(TTSProvider provider) {
+        return Counter.builder("talki.tts.router.hedges")
+                .description("헤지로 시작된 TTS 요청 수")
+                .tag("provider", provider.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * 라우팅 후보 (제공업체 클라이언트와 그 제공업체용 합성 요청)
+     */
+    @Getter
+    public static class Candidate {
+        private final String routingId;
+        private final TTSProviderClient client;
+        private final TTSSynthesisRequest request;
+
+        public Candidate(String routingId, TTSProviderClient client, TTSSynthesisRequest request) {
+            this.routingId = routingId;
+            this.client = client;
+            this.request = request;
+        }
+
+        public TTSProvider getProvider() {
+            return request.getProvider();
+        }
+    }
+
+    /**
+     * 한 제공업체에 대한 시도. 합성은 별도 스레드에서 실행되고 청크는 제한된 큐로 전달됩니다.
+     */
+    private static final class Attempt {
+        private static final Object END = new Object();
+
+        private final Candidate candidate;
+        private final BlockingQueue<Attempt> firstEvents;
+        private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>(ATTEMPT_QUEUE_CAPACITY);
+        private final long startNanos = System.nanoTime();
+        private final long firstChunkDeadline;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+        private boolean signalled;
+        // 반쯤 열린 브레이커의 시험 요청 자리를 가지고 있는지 (라우팅 스레드에서만 접근)
+        private boolean holdsTrial;
+
+        private Attempt(Candidate candidate, BlockingQueue<Attempt> firstEvents, long firstChunkDeadline) {
+            this.candidate = candidate;
+            this.firstEvents = firstEvents;
+            this.firstChunkDeadline = firstChunkDeadline;
+        }
+
+        private void run() {
+            try {
+                candidate.client.synthesize(candidate.request, (chunk, durationMs) -> {
+                    if (cancelled) {
+                        throw new InterruptedIOException("cancelled");
+                    }
+                    emit(new Chunk(chunk.clone(), durationMs));
+                });
+                emit(END);
+            } catch (Exception e) {
+                if (!cancelled) {
+                    try {
+                        emit(new Failure(e));
+                    } catch (InterruptedIOException ignored) {
+                        // 취소됨
+                    }
+                }
+            }
+        }
+
+        private void emit(Object event) throws InterruptedIOException {
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("cancelled");
+            }
+            if (!signalled) {
+                signalled = true;
+                firstEvents.offer(this);
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+            queue.clear();
+        }
+    }
+
+    private static final class Chunk {
+        private final byte[] data;
+        private final long durationMs;
+
+        private Chunk(byte[] data, long durationMs) {
+            this.data = data;
+            this.durationMs = durationMs;
+        }
+    }
+
+    private static final class Failure {
+        private final Exception error;
+
+        private Failure(Exception error) {
+            this.error = error;
+        }
+    }
+
+    private enum Permit {
+        GRANTED,
+        TRIAL,      // 반쯤 열린 상태의 시험 요청 (결과를 기록하거나 releaseTrial로 반납해야 함)
+        DENIED
+    }
+
+    /**
+     * 연속 실패 횟수 기반 서킷 브레이커. 열린 뒤 open-seconds가 지나면 시험 요청 하나만 허용합니다.
+     */
+    private final class CircuitBreaker {
+        private int consecutiveFailures;
+        private long openUntilMillis;
+        private boolean trialInFlight;
+
+        private synchronized Permit acquire() {
+            if (consecutiveFailures < breakerFailureThreshold) {
+                return Permit.GRANTED;
+            }
+            if (System.currentTimeMillis() < openUntilMillis || trialInFlight) {
+                return Permit.DENIED;
+            }
+            trialInFlight = true;
+            return Permit.TRIAL;
+        }
+
+        // 시험 요청이 결과 없이 취소된 경우 (브레이커 상태는 그대로 두고 다음 시험을 허용)
+        private synchronized void releaseTrial() {
+            trialInFlight = false;
+        }
+
+        private synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        private synchronized void recordFailure() {
+            consecutiveFailures++;
+            trialInFlight = false;
+            if (consecutiveFailures >= breakerFailureThreshold) {
+                openUntilMillis = System.currentTimeMillis() + breakerOpenMillis;
+            }
+        }
+    }
+
+    /**
+     * 최근 첫 청크 지연 (ms) 링 버퍼
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private int count;
+        private int next;
+
+        private synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        private synchronized long percentile(double quantile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)];
+        }
+    }
+}
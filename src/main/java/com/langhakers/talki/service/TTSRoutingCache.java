@@ -0,0 +1,194 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.ResolvedTTSRoute;
+import com.langhakers.talki.entity.TTSRoutingConfig;
+import com.langhakers.talki.repository.TTSRoutingConfigRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * (sessionId, participantId)별 TTS 라우팅 read-through 캐시.
+ * 캐시에는 엔티티 대신 불변 스냅샷({@link ResolvedTTSRoute})을 보관합니다.
+ * 라우팅 설정이 바뀌면 해당 키를 즉시 무효화하고, 트랜잭션 안이면 커밋 후에 한 번 더 무효화하여
+ * 커밋 전에 다시 읽힌 이전 값이 남지 않도록 합니다.
+ * 클러스터 fan-out(talki.cluster.fanout.enabled)이 켜져 있으면 커밋 후 무효화를 룸 이벤트 토픽으로 발행해
+ * 다른 파드의 캐시에서도 제거합니다. fan-out이 꺼져 있거나 발행에 실패하면 다른 파드는 최대 TTL
+ * (talki.tts.routing-cache.ttl-seconds, 기본 60초) 동안 이전 라우팅을 사용할 수 있습니다.
+ */
+@Component
+public class TTSRoutingCache {
+
+    private final TTSRoutingConfigRepository routingConfigRepository;
+    private final RoomEventPublisher roomEventPublisher;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<RouteKey, CachedRoute> cache = new ConcurrentHashMap<>();
+    // 무효화마다 증가. 조회 도중 무효화가 일어나면 읽은 값을 캐시에 넣지 않음
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    @Autowired
+    public TTSRoutingCache(TTSRoutingConfigRepository routingConfigRepository,
+                           RoomEventPublisher roomEventPublisher,
+                           MeterRegistry meterRegistry,
+                           @Value("${talki.tts.routing-cache.ttl-seconds:60}") long ttlSeconds,
+                           @Value("${talki.tts.routing-cache.max-entries:10000}") int maxEntries) {
+        this.routingConfigRepository = routingConfigRepository;
+        this.roomEventPublisher = roomEventPublisher;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxEntries = maxEntries;
+
+        Gauge.builder("talki.tts.routing-cache.size", cache, Map::size)
+                .description("캐시된 TTS 라우팅 수")
+                .register(meterRegistry);
+        this.hitCounter = Counter.builder("talki.tts.routing-cache.requests")
+                .description("TTS 라우팅 캐시 조회 수")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("talki.tts.routing-cache.requests")
+                .description("TTS 라우팅 캐시 조회 수")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidationCounter = Counter.builder("talki.tts.routing-cache.invalidations")
+                .description("TTS 라우팅 캐시 무효화 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 라우팅을 조회합니다. 활성 설정이 없으면 routes가 비어 있는 결과를 반환하며, 이 결과도 캐시됩니다.
+     */
+    public ResolvedTTSRoute resolve(String sessionId, String participantId) {
+        RouteKey key = new RouteKey(sessionId, participantId);
+        long now = System.currentTimeMillis();
+        CachedRoute cached = cache.get(key);
+        if (cached != null && cached.expiresAtMillis > now) {
+            hitCounter.increment();
+            return cached.route;
+        }
+        missCounter.increment();
+
+        long observedGeneration = generation.get();
+        List<TTSRoutingConfig> configs =
+                routingConfigRepository.findActiveConfigsBySessionIdAndParticipant(sessionId, participantId);
+        ResolvedTTSRoute route = new ResolvedTTSRoute(sessionId, participantId,
+                configs.stream().map(TTSRoutingCache::toRoute).toList());
+
+        if (generation.get() == observedGeneration) {
+            if (cache.size() >= maxEntries) {
+                evictExpired(now);
+            }
+            if (cache.size() < maxEntries) {
+                cache.put(key, new CachedRoute(route, now + ttlMillis));
+            }
+        }
+        return route;
+    }
+
+    /**
+     * 이 파드의 캐시에서 키를 제거하고, 다른 파드에도 무효화를 발행합니다 (트랜잭션 안이면 커밋 후).
+     */
+    public void invalidate(String sessionId, String participantId) {
+        RouteKey key = new RouteKey(sessionId, participantId);
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                    if (status == STATUS_COMMITTED) {
+                        roomEventPublisher.publishRoutingInvalidation(sessionId, participantId);
+                    }
+                }
+            });
+        } else {
+            roomEventPublisher.publishRoutingInvalidation(sessionId, participantId);
+        }
+    }
+
+    /**
+     * 다른 파드에서 발행한 무효화를 이 파드의 캐시에만 적용합니다.
+     */
+    public void invalidateLocal(String sessionId, String participantId) {
+        evict(new RouteKey(sessionId, participantId));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+        invalidationCounter.increment();
+    }
+
+    private void evict(RouteKey key) {
+        generation.incrementAndGet();
+        cache.remove(key);
+        invalidationCounter.increment();
+    }
+
+    private void evictExpired(long now) {
+        cache.entrySet().removeIf(e -> e.getValue().expiresAtMillis <= now);
+    }
+
+    private static ResolvedTTSRoute.Route toRoute(TTSRoutingConfig config) {
+        return new ResolvedTTSRoute.Route(
+                config.getRoutingId(),
+                config.getProvider(),
+                config.getVoiceId(),
+                config.getLanguage(),
+                config.getAudioFormat(),
+                config.getSampleRate(),
+                config.getSpeed(),
+                config.getPitch(),
+                config.getVolume(),
+                config.getPriority(),
+                config.getStreamingEndpoint());
+    }
+
+    private static final class RouteKey {
+        private final String sessionId;
+        private final String participantId;
+
+        private RouteKey(String sessionId, String participantId) {
+            this.sessionId = sessionId;
+            this.participantId = participantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RouteKey)) return false;
+            RouteKey other = (RouteKey) o;
+            return sessionId.equals(other.sessionId) && participantId.equals(other.participantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sessionId, participantId);
+        }
+    }
+
+    private static final class CachedRoute {
+        private final ResolvedTTSRoute route;
+        private final long expiresAtMillis;
+
+        private CachedRoute(ResolvedTTSRoute route, long expiresAtMillis) {
+            this.route = route;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
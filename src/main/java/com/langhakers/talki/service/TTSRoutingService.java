@@ -1,9 +1,12 @@
 package com.langhakers.talki.service;
 
+import com.langhakers.talki.dto.ResolvedTTSRoute;
+import com.langhakers.talki.dto.TTSStreamingProgressDTO;
 import com.langhakers.talki.entity.*;
 import com.langhakers.talki.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -24,6 +27,12 @@ public class TTSRoutingService {
     @Autowired
     private ConversationSessionRepository sessionRepository;
     
+    @Autowired
+    private TTSStreamingProgressTracker progressTracker;
+    
+    @Autowired
+    private TTSRoutingCache routingCache;
+    
     public TTSRoutingConfig createRoutingConfig(String sessionId, String participantId, TTSProvider provider,
                                               String voiceId, String language, String streamingEndpoint) {
         ConversationSession session = sessionRepository.findBySessionId(sessionId)
@@ -44,7 +53,9 @@ public class TTSRoutingService {
         config.setAudioFormat(AudioFormat.WAV);
         config.setSampleRate(44100);
         
-        return routingConfigRepository.save(config);
+        TTSRoutingConfig saved = routingConfigRepository.save(config);
+        routingCache.invalidate(sessionId, participantId);
+        return saved;
     }
     
     public Optional<TTSRoutingConfig> getRoutingConfig(String routingId) {
@@ -63,6 +74,14 @@ public class TTSRoutingService {
         return routingConfigRepository.findActiveConfigsBySessionAndParticipant(session, participantId);
     }
     
+    /**
+     * (세션, 참가자)의 TTS 라우팅을 우선순위 순서로 조회합니다. 캐시에 있으면 DB를 조회하지 않습니다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResolvedTTSRoute resolveRoute(String sessionId, String participantId) {
+        return routingCache.resolve(sessionId, participantId);
+    }
+    
     public TTSRoutingConfig updateRoutingConfig(String routingId, Float speed, Float pitch, Float volume, 
                                               AudioFormat audioFormat, Integer sampleRate) {
         TTSRoutingConfig config = routingConfigRepository.findByRoutingId(routingId)
@@ -75,7 +94,9 @@ public class TTSRoutingService {
         if (sampleRate != null) config.setSampleRate(sampleRate);
         
         config.setUpdatedAt(LocalDateTime.now());
-        return routingConfigRepository.save(config);
+        TTSRoutingConfig saved = routingConfigRepository.save(config);
+        routingCache.invalidate(config.getSession().getSessionId(), config.getParticipantId());
+        return saved;
     }
     
     public TTSStreamingSession startStreaming(String routingId, String utteranceText) {
@@ -86,7 +107,10 @@ public class TTSRoutingService {
         TTSStreamingSession streamingSession = new TTSStreamingSession(config, streamingSessionId, utteranceText);
         streamingSession.setStatus(StreamingStatus.PENDING);
         
-        return streamingSessionRepository.save(streamingSession);
+        TTSStreamingSession saved = streamingSessionRepository.save(streamingSession);
+        progressTracker.track(streamingSessionId, StreamingStatus.PENDING,
+            saved.getChunkCount(), saved.getTotalBytes(), saved.getDurationMs());
+        return saved;
     }
     
     public TTSStreamingSession updateStreamingStatus(String streamingSessionId, StreamingStatus status, 
@@ -95,6 +119,17 @@ public class TTSRoutingService {
             .orElseThrow(() -> new RuntimeException("Streaming session not found: " + streamingSessionId));
         
         session.setStatus(status);
+        if (isTerminal(status)) {
+            // 메모리에 모아 둔 마지막 진행 상황을 상태와 함께 저장하고 추적 종료
+            TTSStreamingProgressDTO progress = progressTracker.complete(streamingSessionId);
+            if (progress != null) {
+                if (progress.getChunkCount() != null) session.setChunkCount(progress.getChunkCount());
+                if (progress.getTotalBytes() != null) session.setTotalBytes(progress.getTotalBytes());
+                if (progress.getDurationMs() != null) session.setDurationMs(progress.getDurationMs());
+            }
+        } else {
+            progressTracker.updateStatus(streamingSessionId, status);
+        }
         if (errorMessage != null) {
             session.setErrorMessage(errorMessage);
         }
@@ -108,16 +143,50 @@ public class TTSRoutingService {
         return streamingSessionRepository.save(session);
     }
     
-    public TTSStreamingSession updateStreamingProgress(String streamingSessionId, Integer chunkCount, 
-                                                     Long totalBytes, Long durationMs) {
+    /**
+     * 진행 상황은 메모리에만 반영되고 TTSStreamingProgressTracker가 주기적으로 저장합니다.
+     * 추적 중이 아닌 세션에 대한 첫 보고에서만 DB를 조회합니다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TTSStreamingProgressDTO updateStreamingProgress(String streamingSessionId, Integer chunkCount, 
+                                                         Long totalBytes, Long durationMs) {
+        if (!progressTracker.update(streamingSessionId, chunkCount, totalBytes, durationMs)) {
+            TTSStreamingSession session = streamingSessionRepository.findByStreamingSessionId(streamingSessionId)
+                .orElseThrow(() -> new RuntimeException("Streaming session not found: " + streamingSessionId));
+            if (isTerminal(session.getStatus())) {
+                throw new IllegalStateException("Streaming session already " + session.getStatus() + ": " + streamingSessionId);
+            }
+            progressTracker.track(streamingSessionId, session.getStatus(),
+                session.getChunkCount(), session.getTotalBytes(), session.getDurationMs());
+            progressTracker.update(streamingSessionId, chunkCount, totalBytes, durationMs);
+        }
+        return progressTracker.getProgress(streamingSessionId);
+    }
+    
+    /**
+     * 실시간 진행 상황 조회. 추적 중인 세션은 메모리에서, 그 외에는 DB에서 읽습니다.
+     */
+    @Transactional(readOnly = true)
+    public TTSStreamingProgressDTO getStreamingProgress(String streamingSessionId) {
+        TTSStreamingProgressDTO progress = progressTracker.getProgress(streamingSessionId);
+        if (progress != null) {
+            return progress;
+        }
         TTSStreamingSession session = streamingSessionRepository.findByStreamingSessionId(streamingSessionId)
             .orElseThrow(() -> new RuntimeException("Streaming session not found: " + streamingSessionId));
-        
-        if (chunkCount != null) session.setChunkCount(chunkCount);
-        if (totalBytes != null) session.setTotalBytes(totalBytes);
-        if (durationMs != null) session.setDurationMs(durationMs);
-        
-        return streamingSessionRepository.save(session);
+        return TTSStreamingProgressDTO.builder()
+            .streamingSessionId(streamingSessionId)
+            .status(session.getStatus())
+            .chunkCount(session.getChunkCount())
+            .totalBytes(session.getTotalBytes())
+            .durationMs(session.getDurationMs())
+            .updatedAt(session.getCompletedAt() != null ? session.getCompletedAt() : session.getStartedAt())
+            .pendingFlush(false)
+            .build();
+    }
+    
+    private static boolean isTerminal(StreamingStatus status) {
+        return status != StreamingStatus.PENDING && status != StreamingStatus.IN_PROGRESS;
     }
     
     public List<TTSStreamingSession> getActiveStreamingSessions() {
@@ -136,6 +205,7 @@ public class TTSRoutingService {
         config.setIsActive(false);
         config.setUpdatedAt(LocalDateTime.now());
         routingConfigRepository.save(config);
+        routingCache.invalidate(config.getSession().getSessionId(), config.getParticipantId());
     }
     
     /**
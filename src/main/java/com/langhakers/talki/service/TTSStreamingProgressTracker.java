@@ -0,0 +1,239 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.TTSStreamingProgressDTO;
+import com.langhakers.talki.entity.StreamingStatus;
+import com.langhakers.talki.repository.TTSStreamingSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 진행 중인 TTS 스트리밍 세션의 진행 상황을 메모리에 모아 두는 추적기.
+ * 청크마다 들어오는 진행 보고는 메모리만 갱신하고, 변경된 세션만 flush 주기마다 한 번씩 DB에 기록합니다.
+ * 세션이 종료 상태가 되면 마지막 진행 상황을 상태 변경과 함께 저장한 뒤 추적을 끝냅니다.
+ */
+@Component
+public class TTSStreamingProgressTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TTSStreamingProgressTracker.class);
+    private static final Set<StreamingStatus> ACTIVE_STATUSES =
+            EnumSet.of(StreamingStatus.PENDING, StreamingStatus.IN_PROGRESS);
+
+    private final TTSStreamingSessionRepository streamingSessionRepository;
+    private final long flushIntervalMs;
+    private final long idleTtlMillis;
+    private final Map<String, LiveProgress> live = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tts-progress-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter updatesCounter;
+    private final Counter writesCounter;
+
+    @Autowired
+    public TTSStreamingProgressTracker(
+            TTSStreamingSessionRepository streamingSessionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${talki.tts.progress.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${talki.tts.progress.idle-ttl-minutes:30}") long idleTtlMinutes) {
+        this.streamingSessionRepository = streamingSessionRepository;
+        this.flushIntervalMs = flushIntervalMs;
+        this.idleTtlMillis = TimeUnit.MINUTES.toMillis(idleTtlMinutes);
+
+        Gauge.builder("talki.tts.progress.tracked", live, Map::size)
+                .description("메모리에서 추적 중인 TTS 스트리밍 세션 수")
+                .register(meterRegistry);
+        this.updatesCounter = Counter.builder("talki.tts.progress.updates")
+                .description("수신한 TTS 진행 상황 보고 수")
+                .register(meterRegistry);
+        this.writesCounter = Counter.builder("talki.tts.progress.writes")
+                .description("DB에 기록한 TTS 진행 상황 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public boolean isTracked(String streamingSessionId) {
+        return live.containsKey(streamingSessionId);
+    }
+
+    /**
+     * 현재 DB 값으로 추적을 시작합니다. 호출자는 세션이 DB에 존재함을 확인한 뒤 호출해야 합니다.
+     */
+    public void track(String streamingSessionId, StreamingStatus status,
+                      Integer chunkCount, Long totalBytes, Long durationMs) {
+        live.computeIfAbsent(streamingSessionId, id -> {
+            LiveProgress progress = new LiveProgress(status);
+            progress.chunkCount = chunkCount;
+            progress.totalBytes = totalBytes;
+            progress.durationMs = durationMs;
+            return progress;
+        });
+    }
+
+    /**
+     * 진행 상황을 메모리에 반영합니다. null 값은 기존 값을 유지합니다.
+     * @return 추적 중이 아니면 false
+     */
+    public boolean update(String streamingSessionId, Integer chunkCount, Long totalBytes, Long durationMs) {
+        LiveProgress progress = live.get(streamingSessionId);
+        if (progress == null) {
+            return false;
+        }
+        synchronized (progress) {
+            if (chunkCount != null) progress.chunkCount = chunkCount;
+            if (totalBytes != null) progress.totalBytes = totalBytes;
+            if (durationMs != null) progress.durationMs = durationMs;
+            progress.touch();
+            progress.dirty = true;
+        }
+        updatesCounter.increment();
+        return true;
+    }
+
+    /**
+     * 실시간 조회용 값만 갱신하고 flush 대상으로 표시하지 않습니다.
+     * 종료 시 직접 최종 값을 저장하는 호출자(TTSStreamingService)가 사용합니다.
+     */
+    public void updateLive(String streamingSessionId, Integer chunkCount, Long totalBytes, Long durationMs) {
+        LiveProgress progress = live.get(streamingSessionId);
+        if (progress == null) {
+            return;
+        }
+        synchronized (progress) {
+            progress.chunkCount = chunkCount;
+            progress.totalBytes = totalBytes;
+            progress.durationMs = durationMs;
+            progress.touch();
+        }
+    }
+
+    public void updateStatus(String streamingSessionId, StreamingStatus status) {
+        LiveProgress progress = live.get(streamingSessionId);
+        if (progress != null) {
+            synchronized (progress) {
+                progress.status = status;
+                progress.touch();
+            }
+        }
+    }
+
+    /**
+     * 추적을 끝내고 마지막 진행 상황을 반환합니다 (종료 상태 저장 시 함께 기록하기 위함).
+     */
+    public TTSStreamingProgressDTO complete(String streamingSessionId) {
+        LiveProgress progress = live.remove(streamingSessionId);
+        if (progress == null) {
+            return null;
+        }
+        synchronized (progress) {
+            progress.dirty = false;
+            return progress.snapshot(streamingSessionId, false);
+        }
+    }
+
+    public TTSStreamingProgressDTO getProgress(String streamingSessionId) {
+        LiveProgress progress = live.get(streamingSessionId);
+        if (progress == null) {
+            return null;
+        }
+        synchronized (progress) {
+            return progress.snapshot(streamingSessionId, progress.dirty);
+        }
+    }
+
+    void flush() {
+        long cutoff = System.currentTimeMillis() - idleTtlMillis;
+        for (Map.Entry<String, LiveProgress> entry : live.entrySet()) {
+            LiveProgress progress = entry.getValue();
+            Integer chunkCount;
+            Long totalBytes;
+            Long durationMs;
+            synchronized (progress) {
+                if (!progress.dirty) {
+                    if (progress.lastUpdateMillis < cutoff) {
+                        // 종료 보고 없이 방치된 세션은 추적 중단 (DB에는 마지막 진행 상황이 이미 기록됨)
+                        live.remove(entry.getKey(), progress);
+                    }
+                    continue;
+                }
+                chunkCount = progress.chunkCount;
+                totalBytes = progress.totalBytes;
+                durationMs = progress.durationMs;
+                progress.dirty = false;
+            }
+            try {
+                streamingSessionRepository.updateProgress(entry.getKey(), chunkCount, totalBytes, durationMs, ACTIVE_STATUSES);
+                writesCounter.increment();
+            } catch (RuntimeException e) {
+                synchronized (progress) {
+                    progress.dirty = true;
+                }
+                logger.error("TTS 진행 상황 저장 실패: streamingSessionId={}", entry.getKey(), e);
+            }
+        }
+    }
+
+    private static final class LiveProgress {
+        private StreamingStatus status;
+        private Integer chunkCount;
+        private Long totalBytes;
+        private Long durationMs;
+        private boolean dirty;
+        private volatile long lastUpdateMillis = System.currentTimeMillis();
+        private LocalDateTime updatedAt = LocalDateTime.now();
+
+        private LiveProgress(StreamingStatus status) {
+            this.status = status;
+        }
+
+        private void touch() {
+            lastUpdateMillis = System.currentTimeMillis();
+            updatedAt = LocalDateTime.now();
+        }
+
+        private TTSStreamingProgressDTO snapshot(String streamingSessionId, boolean pendingFlush) {
+            return TTSStreamingProgressDTO.builder()
+                    .streamingSessionId(streamingSessionId)
+                    .status(status)
+                    .chunkCount(chunkCount)
+                    .totalBytes(totalBytes)
+                    .durationMs(durationMs)
+                    .updatedAt(updatedAt)
+                    .pendingFlush(pendingFlush)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.ResolvedTTSRoute;
+import com.langhakers.talki.dto.TTSSynthesisRequest;
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.StreamingStatus;
+import com.langhakers.talki.entity.TTSProvider;
+import com.langhakers.talki.entity.TTSRoutingConfig;
+import com.langhakers.talki.entity.TTSStreamingSession;
+import com.langhakers.talki.exception.ResourceNotFoundException;
+import com.langhakers.talki.repository.TTSStreamingSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TTS 오디오 스트리밍. 제공업체 클라이언트가 만든 청크를 도착하는 즉시 HTTP 응답으로 전달합니다.
+ * 청크 수, 바이트 수, 재생 길이는 스트리밍 중에는 메모리에서만 집계하고 종료 시 한 번만 저장합니다.
+ * 같은 텍스트와 음성 설정의 오디오는 {@link TTSAudioCache}에서 바로 전송합니다.
+ * 캐시에 없으면 같은 (세션, 참가자)의 활성 라우팅 설정을 우선순위대로 {@link TTSProviderRouter}에 넘겨
+ * 장애 시 대체 제공업체로 넘어가거나 헤지 요청을 보냅니다.
+ */
+@Service
+public class TTSStreamingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TTSStreamingService.class);
+
+    private final TTSStreamingSessionRepository streamingSessionRepository;
+    private final TTSStreamingProgressTracker progressTracker;
+    private final TTSAudioCache audioCache;
+    private final TTSRoutingCache routingCache;
+    private final TTSProviderRouter providerRouter;
+    private final Map<TTSProvider, TTSProviderClient> providerClients = new EnumMap<>(TTSProvider.class);
+    private final TTSProvider fallbackProvider;
+    // 이 노드에서 전송 중인 스트림 (정리 작업이 중단시킬 수 있도록 유지)
+    private final Map<String, StreamProgress> activeStreams = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter bytesCounter;
+
+    @Autowired
+    public TTSStreamingService(TTSStreamingSessionRepository streamingSessionRepository,
+                               TTSStreamingProgressTracker progressTracker,
+                               TTSAudioCache audioCache,
+                               TTSRoutingCache routingCache,
+                               TTSProviderRouter providerRouter,
+                               List<TTSProviderClient> clients,
+                               MeterRegistry meterRegistry,
+                               @Value("${talki.tts.stream.fallback-provider:}") String fallbackProvider) {
+        this.streamingSessionRepository = streamingSessionRepository;
+        this.progressTracker = progressTracker;
+        this.audioCache = audioCache;
+        this.routingCache = routingCache;
+        this.providerRouter = providerRouter;
+        for (TTSProviderClient client : clients) {
+            providerClients.put(client.getProvider(), client);
+        }
+        // 개발 환경에서 구현되지 않은 제공업체를 LOCAL 등으로 대신 처리할 때 사용
+        this.fallbackProvider = fallbackProvider.isBlank() ? null : TTSProvider.valueOf(fallbackProvider);
+        this.meterRegistry = meterRegistry;
+        this.bytesCounter = Counter.builder("talki.tts.stream.bytes")
+                .description("스트리밍으로 전송한 TTS 오디오 바이트 수")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 대기 중인 스트리밍 세션을 IN_PROGRESS로 바꾸고 전송에 필요한 정보를 준비합니다.
+     * @throws ResourceNotFoundException 세션이 없거나 다른 캐릭터의 세션인 경우
+     * @throws IllegalStateException 이미 시작된 세션이거나 동시 요청에 선점된 경우
+     * @throws UnsupportedOperationException 제공업체 클라이언트가 없는 경우
+     */
+    @Transactional
+    public StreamTicket open(String characterId, String streamingSessionId) {
+        TTSStreamingSession session = streamingSessionRepository.findByStreamingSessionId(streamingSessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Streaming session not found: " + streamingSessionId));
+        TTSRoutingConfig config = session.getRoutingConfig();
+        if (!config.getParticipantId().equals(characterId)) {
+            throw new ResourceNotFoundException("Streaming session " + streamingSessionId + " does not belong to " + characterId);
+        }
+        if (session.getStatus() != StreamingStatus.PENDING) {
+            throw new IllegalStateException("Streaming session already " + session.getStatus() + ": " + streamingSessionId);
+        }
+        // 같은 세션에 대한 동시 요청 중 조건부 UPDATE에 성공한 요청만 스트리밍을 시작
+        LocalDateTime startedAt = LocalDateTime.now();
+        if (streamingSessionRepository.claimStreaming(session.getId(), StreamingStatus.PENDING,
+                StreamingStatus.IN_PROGRESS, startedAt) == 0) {
+            throw new IllegalStateException("Streaming session already started: " + streamingSessionId);
+        }
+        // 이후 dirty checking이 PENDING으로 되돌리지 않도록 엔티티도 맞춰 둠
+        session.setStatus(StreamingStatus.IN_PROGRESS);
+        session.setStartedAt(startedAt);
+
+        TTSSynthesisRequest request = TTSSynthesisRequest.builder()
+                .provider(config.getProvider())
+                .text(session.getUtteranceText())
+                .voiceId(config.getVoiceId())
+                .language(config.getLanguage())
+                .audioFormat(config.getAudioFormat())
+                .sampleRate(config.getSampleRate())
+                .speed(config.getSpeed())
+                .pitch(config.getPitch())
+                .volume(config.getVolume())
+                .build();
+
+        // 같은 텍스트/음성 설정으로 합성된 오디오가 있으면 제공업체를 호출하지 않음
+        String cacheKey = audioCache.isEnabled() ? audioCache.keyOf(request) : null;
+        TTSAudioCache.CachedClip cachedClip = cacheKey != null ? audioCache.lookup(cacheKey) : null;
+        List<TTSProviderRouter.Candidate> candidates = List.of();
+        AudioFormat outputFormat;
+        if (cachedClip != null) {
+            outputFormat = cachedClip.getFormat();
+            session.setAudioDataId(cachedClip.getAudioDataId());
+        } else {
+            TTSProviderClient client = resolveClient(config.getProvider());
+            outputFormat = client.getOutputFormat(request);
+            candidates = buildCandidates(config, session.getUtteranceText(),
+                    new TTSProviderRouter.Candidate(config.getRoutingId(), client, request), outputFormat);
+        }
+
+        // 세션 생성 시 이미 PENDING으로 추적 중이면 track()은 아무것도 하지 않으므로 상태를 따로 갱신
+        progressTracker.track(streamingSessionId, StreamingStatus.IN_PROGRESS, 0, 0L, 0L);
+        progressTracker.updateStatus(streamingSessionId, StreamingStatus.IN_PROGRESS);
+        return new StreamTicket(session.getId(), streamingSessionId, candidates, request, outputFormat, cacheKey, cachedClip);
+    }
+
+    /**
+     * 세션에 지정된 설정을 첫 후보로 두고, 같은 (세션, 참가자)의 다른 활성 설정을 우선순위 순서로 덧붙입니다.
+     * 응답의 Content-Type이 이미 정해지므로 출력 형식이 같은 설정만 대체 후보가 됩니다.
+     */
+    private List<TTSProviderRouter.Candidate> buildCandidates(TTSRoutingConfig config, String text,
+                                                             TTSProviderRouter.Candidate primary,
+                                                             AudioFormat outputFormat) {
+        List<TTSProviderRouter.Candidate> candidates = new ArrayList<>();
+        candidates.add(primary);
+        ResolvedTTSRoute resolved = routingCache.resolve(config.getSession().getSessionId(), config.getParticipantId());
+        for (ResolvedTTSRoute.Route route : resolved.getRoutes()) {
+            if (route.getRoutingId().equals(config.getRoutingId())) {
+                continue;
+            }
+            TTSProviderClient client = providerClients.get(route.getProvider());
+            if (client == null) {
+                continue;
+            }
+            TTSSynthesisRequest request = TTSSynthesisRequest.builder()
+                    .provider(route.getProvider())
+                    .text(text)
+                    .voiceId(route.getVoiceId())
+                    .language(route.getLanguage())
+                    .audioFormat(route.getAudioFormat())
+                    .sampleRate(route.getSampleRate())
+                    .speed(route.getSpeed())
+                    .pitch(route.getPitch())
+                    .volume(route.getVolume())
+                    .build();
+            if (client.getOutputFormat(request) == outputFormat) {
+                candidates.add(new TTSProviderRouter.Candidate(route.getRoutingId(), client, request));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 합성된 청크를 출력 스트림으로 전달합니다. 각 청크마다 flush하여 chunked 응답으로 바로 내보냅니다.
+     * 캐시에 있는 클립은 그대로 전송하고, 새로 합성한 클립은 전송이 끝난 뒤 캐시에 저장합니다.
+     */
+    public void stream(StreamTicket ticket, OutputStream out) throws IOException {
+        StreamProgress progress = new StreamProgress();
+        activeStreams.put(ticket.streamingSessionId, progress);
+        long startNanos = System.nanoTime();
+        String provider = ticket.request.getProvider().name();
+        try {
+            if (ticket.cachedClip != null) {
+                long written = ticket.cachedClip.writeTo(out);
+                recordFirstChunk(provider, "hit", startNanos);
+                progress.chunkCount = 1;
+                progress.totalBytes = written;
+                progress.durationMs = ticket.cachedClip.getDurationMs();
+                bytesCounter.increment(written);
+                finish(ticket, progress, StreamingStatus.COMPLETED, null, ticket.cachedClip.getAudioDataId());
+                return;
+            }
+
+            // 캐시에 저장할 수 있는 크기까지만 청크를 모아 둠
+            ByteArrayOutputStream capture = ticket.cacheKey != null ? new ByteArrayOutputStream() : null;
+            TTSProviderRouter.Candidate winner = providerRouter.route(ticket.candidates, (chunk, durationMs) -> {
+                if (progress.aborted) {
+                    throw new InterruptedIOException("Streaming session reaped: " + ticket.streamingSessionId);
+                }
+                out.write(chunk);
+                out.flush();
+                if (progress.chunkCount == 0) {
+                    recordFirstChunk(provider, "miss", startNanos);
+                }
+                progress.chunkCount++;
+                progress.totalBytes += chunk.length;
+                progress.durationMs += durationMs;
+                bytesCounter.increment(chunk.length);
+                if (progress.capturing && capture != null) {
+                    if (progress.totalBytes <= audioCache.getMaxClipBytes()) {
+                        capture.write(chunk);
+                    } else {
+                        progress.capturing = false;
+                        capture.reset();
+                    }
+                }
+                // 실시간 조회용으로만 반영 (DB에는 종료 시 한 번 기록)
+                progressTracker.updateLive(ticket.streamingSessionId, progress.chunkCount, progress.totalBytes, progress.durationMs);
+            });
+
+            finish(ticket, progress, StreamingStatus.COMPLETED, null, null);
+            if (capture != null && progress.capturing && progress.totalBytes > 0 && !progress.aborted) {
+                // 대체 제공업체가 만든 오디오는 그 제공업체의 요청 기준 키로 저장
+                String cacheKey = winner.getRequest() == ticket.request
+                        ? ticket.cacheKey : audioCache.keyOf(winner.getRequest());
+                // 파일 기록과 AudioData 생성은 캐시 전용 스레드에서 수행하고, 끝나면 세션에 오디오를 연결
+                audioCache.storeAsync(cacheKey, ticket.outputFormat, capture.toByteArray(), progress.durationMs,
+                        audioDataId -> streamingSessionRepository.attachAudioData(ticket.sessionPk, audioDataId));
+            }
+        } catch (IOException e) {
+            // 클라이언트가 연결을 끊은 경우
+            finish(ticket, progress, StreamingStatus.CANCELLED, e.getMessage(), null);
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("TTS 스트리밍 실패: streamingSessionId={}", ticket.streamingSessionId, e);
+            finish(ticket, progress, StreamingStatus.FAILED, e.getMessage(), null);
+            throw e;
+        }
+    }
+
+    private void recordFirstChunk(String provider, String cache, long startNanos) {
+        Timer.builder("talki.tts.stream.first-chunk")
+                .description("TTS 스트리밍 첫 청크 전송까지 걸린 시간")
+                .tag("provider", provider)
+                .tag("cache", cache)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 이 노드에서 전송 중인 스트림을 중단합니다. 상태는 호출한 쪽에서 이미 기록했으므로 다시 저장하지 않습니다.
+     * @return 전송 중인 스트림이 있었으면 true
+     */
+    public boolean abort(String streamingSessionId) {
+        StreamProgress progress = activeStreams.get(streamingSessionId);
+        if (progress == null) {
+            return false;
+        }
+        progress.aborted = true;
+        return true;
+    }
+
+    private void finish(StreamTicket ticket, StreamProgress progress, StreamingStatus status, String errorMessage,
+                        Long audioDataId) {
+        LocalDateTime now = LocalDateTime.now();
+        activeStreams.remove(ticket.streamingSessionId, progress);
+        progressTracker.complete(ticket.streamingSessionId);
+        if (progress.aborted) {
+            logger.debug("정리된 TTS 스트림 종료: streamingSessionId={}", ticket.streamingSessionId);
+            return;
+        }
+        try {
+            streamingSessionRepository.finishStreaming(ticket.sessionPk, status,
+                    progress.chunkCount, progress.totalBytes, progress.durationMs,
+                    status == StreamingStatus.COMPLETED ? now : null,
+                    status == StreamingStatus.COMPLETED ? null : now,
+                    errorMessage, audioDataId);
+        } catch (RuntimeException e) {
+            logger.error("TTS 스트리밍 결과 저장 실패: streamingSessionId={}", ticket.streamingSessionId, e);
+        }
+        Counter.builder("talki.tts.stream.sessions")
+                .description("종료된 TTS 스트리밍 세션 수")
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .increment();
+        logger.debug("TTS 스트리밍 종료: streamingSessionId={}, status={}, chunks={}, bytes={}",
+                ticket.streamingSessionId, status, progress.chunkCount, progress.totalBytes);
+    }
+
+    private TTSProviderClient resolveClient(TTSProvider provider) {
+        TTSProviderClient client = providerClients.get(provider);
+        if (client == null && fallbackProvider != null) {
+            client = providerClients.get(fallbackProvider);
+        }
+        if (client == null) {
+            throw new UnsupportedOperationException("No TTS provider client for " + provider);
+        }
+        return client;
+    }
+
+    /**
+     * 스트리밍 시작 시 준비된 정보 (트랜잭션 밖에서 사용)
+     */
+    @Getter
+    public static class StreamTicket {
+        private final Long sessionPk;
+        private final String streamingSessionId;
+        // 우선순위 순서의 제공업체 후보 (캐시 적중 시 비어 있음)
+        private final List<TTSProviderRouter.Candidate> candidates;
+        private final TTSSynthesisRequest request;
+        private final AudioFormat outputFormat;
+        private final String cacheKey;
+        // 캐시 적중 시에만 존재
+        private final TTSAudioCache.CachedClip cachedClip;
+
+        private StreamTicket(Long sessionPk, String streamingSessionId, List<TTSProviderRouter.Candidate> candidates,
+                             TTSSynthesisRequest request, AudioFormat outputFormat,
+                             String cacheKey, TTSAudioCache.CachedClip cachedClip) {
+            this.sessionPk = sessionPk;
+            this.streamingSessionId = streamingSessionId;
+            this.candidates = candidates;
+            this.request = request;
+            this.outputFormat = outputFormat;
+            this.cacheKey = cacheKey;
+            this.cachedClip = cachedClip;
+        }
+    }
+
+    private static final class StreamProgress {
+        private int chunkCount;
+        private long totalBytes;
+        private long durationMs;
+        private boolean capturing = true;
+        private volatile boolean aborted;
+    }
+}
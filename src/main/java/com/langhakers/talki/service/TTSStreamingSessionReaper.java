@@ -0,0 +1,126 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.entity.StreamingStatus;
+import com.langhakers.talki.repository.TTSStreamingSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 멈춘 TTS 스트리밍 세션 정리 작업.
+ * timeout-minutes 이상 IN_PROGRESS로 남은 세션을 batch-size 단위의 UPDATE로 FAILED 처리하고,
+ * 이 노드에 남아 있는 진행 상황 추적과 전송 중인 스트림을 해제합니다.
+ */
+@Component
+public class TTSStreamingSessionReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(TTSStreamingSessionReaper.class);
+    private static final String REAPED_MESSAGE = "Streaming session timed out";
+
+    private final TTSStreamingSessionRepository streamingSessionRepository;
+    private final TTSStreamingProgressTracker progressTracker;
+    private final TTSStreamingService streamingService;
+    private final boolean enabled;
+    private final long intervalSeconds;
+    private final long timeoutMinutes;
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tts-session-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter reapedCounter;
+    private final Counter abortedCounter;
+
+    @Autowired
+    public TTSStreamingSessionReaper(
+            TTSStreamingSessionRepository streamingSessionRepository,
+            TTSStreamingProgressTracker progressTracker,
+            TTSStreamingService streamingService,
+            MeterRegistry meterRegistry,
+            @Value("${talki.tts.reaper.enabled:true}") boolean enabled,
+            @Value("${talki.tts.reaper.interval-seconds:60}") long intervalSeconds,
+            @Value("${talki.tts.reaper.timeout-minutes:30}") long timeoutMinutes,
+            @Value("${talki.tts.reaper.batch-size:500}") int batchSize) {
+        this.streamingSessionRepository = streamingSessionRepository;
+        this.progressTracker = progressTracker;
+        this.streamingService = streamingService;
+        this.enabled = enabled;
+        this.intervalSeconds = intervalSeconds;
+        this.timeoutMinutes = timeoutMinutes;
+        this.batchSize = batchSize;
+
+        this.reapedCounter = Counter.builder("talki.tts.reaper.reaped")
+                .description("시간 초과로 FAILED 처리된 TTS 스트리밍 세션 수")
+                .register(meterRegistry);
+        this.abortedCounter = Counter.builder("talki.tts.reaper.aborted")
+                .description("정리 작업으로 중단된 전송 중 스트림 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::sweep, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    void sweep() {
+        try {
+            int reaped = reap(LocalDateTime.now().minusMinutes(timeoutMinutes));
+            if (reaped > 0) {
+                logger.warn("멈춘 TTS 스트리밍 세션 {}건을 FAILED 처리했습니다.", reaped);
+            }
+        } catch (RuntimeException e) {
+            logger.error("TTS 스트리밍 세션 정리 중 오류", e);
+        }
+    }
+
+    /**
+     * cutoff 이전에 시작되어 아직 IN_PROGRESS인 세션을 FAILED로 바꿉니다.
+     * @return FAILED 처리된 세션 수
+     */
+    public int reap(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            List<String> stuck = streamingSessionRepository.findStuckStreamingSessionIds(
+                    StreamingStatus.IN_PROGRESS, cutoff, PageRequest.of(0, batchSize));
+            if (stuck.isEmpty()) {
+                return total;
+            }
+            int updated = streamingSessionRepository.failStuckSessions(stuck, StreamingStatus.IN_PROGRESS,
+                    StreamingStatus.FAILED, LocalDateTime.now(), REAPED_MESSAGE);
+            for (String streamingSessionId : stuck) {
+                progressTracker.complete(streamingSessionId);
+                if (streamingService.abort(streamingSessionId)) {
+                    abortedCounter.increment();
+                }
+            }
+            reapedCounter.increment(updated);
+            total += updated;
+            if (stuck.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+}
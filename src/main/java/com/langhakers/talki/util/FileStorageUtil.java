@@ -1,40 +1,149 @@
 package com.langhakers.talki.util;
 
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.exception.PayloadTooLargeException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
+/**
+ * 오디오 파일 저장소. 파일 이름은 내용의 SHA-256 해시(+확장자)이므로 같은 파일은 한 번만 저장됩니다.
+ * 업로드 스트림은 NIO 채널로 저장 디렉터리 안의 임시 파일에 바로 기록되며, 기록과 동시에 해시를 계산한 뒤
+ * 최종 이름으로 원자적으로 이동합니다.
+ * 확장자는 알려진 오디오 포맷이면 AudioFormat의 표준 확장자로 정규화하므로
+ * 같은 내용이 확장자 표기만 달라 여러 파일로 저장되지 않습니다.
+ */
 @Component
 public class FileStorageUtil {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+
     private final Path fileBasePath = Paths.get("./audio_files").toAbsolutePath().normalize();
 
     public String saveFile(MultipartFile file) throws IOException {
+        return store(file.getInputStream(), file.getOriginalFilename()).getFileName();
+    }
+
+    /**
+     * 스트림을 끝까지 읽어 내용 주소 파일로 저장합니다. 스트림은 이 메서드에서 닫습니다.
+     * @param originalFilename 확장자를 정하기 위한 원래 파일 이름 (없으면 확장자 없이 저장)
+     */
+    public StoredFile store(InputStream in, String originalFilename) throws IOException {
+        return store(in, originalFilename, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * 크기 제한을 두고 스트림을 저장합니다. 실제로 읽은 바이트가 maxBytes를 넘으면 임시 파일을 지우고
+     * PayloadTooLargeException을 던집니다 (Content-Length를 신뢰하지 않음).
+     * @param contentType 파일 이름에 확장자가 없을 때 확장자를 정하기 위한 MIME 타입 (없으면 null)
+     */
+    public StoredFile store(InputStream in, String originalFilename, String contentType, long maxBytes) throws IOException {
         if (!Files.exists(fileBasePath)) {
             Files.createDirectories(fileBasePath);
         }
 
-        String originalFilename = file.getOriginalFilename();
-        String ext = "";
+        MessageDigest digest = sha256();
+        // 최종 위치와 같은 디렉터리에 기록해야 이동이 복사 없이 rename으로 끝남
+        Path tempFile = fileBasePath.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+        long size = 0;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    size += target.write(buffer);
+                }
+                buffer.clear();
+                if (size > maxBytes) {
+                    throw new PayloadTooLargeException("Upload exceeds " + maxBytes + " bytes");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
 
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        String extension = extensionOf(originalFilename, contentType);
+        String storedFilename = extension.isEmpty() ? contentHash : contentHash + "." + extension;
+        Path targetLocation = fileBasePath.resolve(storedFilename);
+
+        boolean deduplicated = false;
+        if (Files.exists(targetLocation)) {
+            // 같은 내용의 파일이 이미 있으면 새로 기록한 파일은 버림
+            Files.delete(tempFile);
+            deduplicated = true;
+        } else {
+            try {
+                Files.move(tempFile, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // 동시에 같은 파일이 업로드된 경우
+                Files.deleteIfExists(tempFile);
+                deduplicated = true;
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return new StoredFile(storedFilename, contentHash, size, deduplicated);
+    }
+
+    private static String extensionOf(String originalFilename, String contentType) {
         if (originalFilename != null) {
+            AudioFormat format = AudioFormat.fromFilename(originalFilename);
+            if (format != null) {
+                return format.getExtension();
+            }
             int dotIndex = originalFilename.lastIndexOf('.');
             if (dotIndex > 0) {
-                ext = originalFilename.substring(dotIndex);
+                String ext = originalFilename.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+                if (SAFE_EXTENSION.matcher(ext).matches()) {
+                    return ext;
+                }
             }
         }
+        AudioFormat format = AudioFormat.fromMimeType(contentType);
+        return format != null ? format.getExtension() : "";
+    }
 
-        String storedFilename = UUID.randomUUID().toString() + ext;
-        Path targetLocation = fileBasePath.resolve(storedFilename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
 
-        return storedFilename;
+    @Getter
+    @AllArgsConstructor
+    public static class StoredFile {
+        private final String fileName;
+        private final String contentHash;
+        private final long sizeBytes;
+        // 같은 내용의 파일이 이미 있어서 새로 저장하지 않았는지 여부
+        private final boolean deduplicated;
     }
 }
-
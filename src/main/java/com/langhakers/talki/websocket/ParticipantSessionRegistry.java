@@ -0,0 +1,130 @@
+package com.langhakers.talki.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 참가자 ↔ 대화 세션 양방향 레지스트리.
+ * 참가자별로 참여 중인 세션 목록을 함께 유지하므로 연결 종료 시 전체 세션을 훑지 않고
+ * 참여한 세션에서만 제거합니다 (O(참여 세션 수)). 비어 있는 세션은 즉시 정리됩니다.
+ */
+public class ParticipantSessionRegistry {
+
+    // participantId -> WebSocket 연결
+    private final Map<String, WebSocketSession> connections = new ConcurrentHashMap<>();
+    // sessionId -> 참가자 ID 목록
+    private final Map<String, Set<String>> sessionParticipants = new ConcurrentHashMap<>();
+    // participantId -> 참여 중인 sessionId 목록
+    private final Map<String, Set<String>> participantSessions = new ConcurrentHashMap<>();
+
+    public void connect(String participantId, WebSocketSession connection) {
+        connections.put(participantId, connection);
+    }
+
+    /**
+     * 참가자의 연결이 끊겼을 때 호출합니다.
+     * 같은 참가자가 이미 새 연결로 재접속한 경우에는 이전 연결의 종료가 새 연결을 지우지 않습니다.
+     * @return 참가자가 빠져나간 세션 ID 목록
+     */
+    public Set<String> disconnect(String participantId, WebSocketSession connection) {
+        if (connections.remove(participantId, connection)) {
+            return leaveAll(participantId);
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * 연결 객체와 무관하게 참가자를 모든 세션에서 제거합니다.
+     * @return 참가자가 빠져나간 세션 ID 목록
+     */
+    public Set<String> disconnect(String participantId) {
+        connections.remove(participantId);
+        return leaveAll(participantId);
+    }
+
+    public void join(String sessionId, String participantId) {
+        // 참가자 키의 compute 안에서 두 인덱스를 함께 갱신해 같은 참가자의 join/leave가 섞이지 않도록 함
+        participantSessions.compute(participantId, (key, joined) -> {
+            Set<String> result = joined != null ? joined : ConcurrentHashMap.newKeySet();
+            result.add(sessionId);
+            sessionParticipants.compute(sessionId, (sid, members) -> {
+                Set<String> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+                updated.add(participantId);
+                return updated;
+            });
+            return result;
+        });
+    }
+
+    public void leave(String sessionId, String participantId) {
+        participantSessions.computeIfPresent(participantId, (key, joined) -> {
+            joined.remove(sessionId);
+            removeMember(sessionId, participantId);
+            return joined.isEmpty() ? null : joined;
+        });
+    }
+
+    public WebSocketSession getConnection(String participantId) {
+        return connections.get(participantId);
+    }
+
+    public Set<String> getParticipants(String sessionId) {
+        Set<String> members = sessionParticipants.get(sessionId);
+        return members != null ? Collections.unmodifiableSet(members) : Collections.emptySet();
+    }
+
+    /**
+     * 세션에 연결된 참가자들의 WebSocket 연결 목록 (제외 대상 참가자 제외)
+     */
+    public List<WebSocketSession> getConnections(String sessionId, String excludeParticipantId) {
+        Set<String> members = sessionParticipants.get(sessionId);
+        if (members == null || members.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<WebSocketSession> result = new ArrayList<>(members.size());
+        for (String participantId : members) {
+            if (participantId.equals(excludeParticipantId)) {
+                continue;
+            }
+            WebSocketSession connection = connections.get(participantId);
+            if (connection != null) {
+                result.add(connection);
+            }
+        }
+        return result;
+    }
+
+    public int getSessionCount() {
+        return sessionParticipants.size();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private Set<String> leaveAll(String participantId) {
+        Set<String> left = new HashSet<>();
+        participantSessions.computeIfPresent(participantId, (key, joined) -> {
+            for (String sessionId : joined) {
+                removeMember(sessionId, participantId);
+                left.add(sessionId);
+            }
+            return null;
+        });
+        return left;
+    }
+
+    private void removeMember(String sessionId, String participantId) {
+        sessionParticipants.computeIfPresent(sessionId, (sid, members) -> {
+            members.remove(participantId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
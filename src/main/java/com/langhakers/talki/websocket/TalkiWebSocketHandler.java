@@ -8,56 +8,85 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.langhakers.talki.dto.*;
 import com.langhakers.talki.service.ChatService;
+import com.langhakers.talki.service.RoomEventPublisher;
 import com.langhakers.talki.service.TALKiSimpleService;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Component
 public class TalkiWebSocketHandler extends TextWebSocketHandler {
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private static final String ROOM_ID_ATTRIBUTE = "roomId";
+
+    // roomId -> 해당 방에 연결된 세션 목록
+    private final Map<String, Set<WebSocketSession>> roomSessions = new ConcurrentHashMap<>();
     private final Map<String, String> sessionParticipants = new ConcurrentHashMap<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
+    // 수신 프레임 디코더 (type에 따라 data를 바로 요청 DTO로 읽음, data가 없는 기존 메시지도 허용)
+    private final ObjectReader inboundReader;
     private final ChatService chatService;
     private final TALKiSimpleService talkiService;
+    private final WebSocketOutboundDispatcher outboundDispatcher;
+    private final WebSocketInboundDispatcher inboundDispatcher;
+    private final RoomEventPublisher roomEventPublisher;
 
     @Autowired
-    public TalkiWebSocketHandler(ChatService chatService, TALKiSimpleService talkiService) {
+    public TalkiWebSocketHandler(ObjectMapper objectMapper, ChatService chatService, TALKiSimpleService talkiService,
+                                 WebSocketOutboundDispatcher outboundDispatcher,
+                                 WebSocketInboundDispatcher inboundDispatcher,
+                                 RoomEventPublisher roomEventPublisher) {
+        this.objectMapper = objectMapper;
+        this.inboundReader = objectMapper.readerFor(TALKiInboundMessageDTO.class);
         this.chatService = chatService;
         this.talkiService = talkiService;
+        this.outboundDispatcher = outboundDispatcher;
+        this.inboundDispatcher = inboundDispatcher;
+        this.roomEventPublisher = roomEventPublisher;
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = session.getId();
-        sessions.put(sessionId, session);
+        outboundDispatcher.register(session);
+        joinRoom(session);
         System.out.println("TALKi WebSocket connection established: " + sessionId);
         
         // Send connection acknowledgment
         TALKiMessageDTO ackMessage = new TALKiMessageDTO("CONNECTION_ESTABLISHED", 
             Map.of("session_id", sessionId, "status", "connected"));
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(ackMessage)));
+        outboundDispatcher.send(session, new TextMessage(objectMapper.writeValueAsString(ackMessage)));
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         String payload = message.getPayload();
+        // DB 저장이 포함된 처리는 세션별 순서를 유지하며 I/O 스레드 밖에서 실행
+        if (!inboundDispatcher.submit(session, () -> processTextMessage(session, payload))) {
+            TALKiResponseDTO busyResponse = TALKiResponseDTO.error("SERVER_BUSY", "Too many pending messages");
+            outboundDispatcher.send(session, new TextMessage(objectMapper.writeValueAsString(busyResponse)));
+        }
+    }
+
+    private void processTextMessage(WebSocketSession session, String payload) {
         String sessionId = session.getId();
         
         try {
-            TALKiMessageDTO talkiMessage = objectMapper.readValue(payload, TALKiMessageDTO.class);
-            String messageType = talkiMessage.getType();
+            TALKiInboundMessageDTO talkiMessage = inboundReader.readValue(payload);
+            String messageType = talkiMessage.getType() != null ? talkiMessage.getType() : "";
             
             TALKiResponseDTO response = null;
             
             switch (messageType) {
                 case "JOIN_SESSION":
-                    TALKiJoinSessionDTO joinRequest = objectMapper.convertValue(talkiMessage.getData(), TALKiJoinSessionDTO.class);
+                    TALKiJoinSessionDTO joinRequest = requireData(talkiMessage, TALKiJoinSessionDTO.class);
                     String participantId = joinRequest.getParticipantId();
                     sessionParticipants.put(sessionId, participantId);
                     talkiService.registerSession(participantId, session);
@@ -65,23 +94,26 @@ public class TalkiWebSocketHandler extends TextWebSocketHandler {
                     break;
                     
                 case "CREATE_BRANCH":
-                    TALKiCreateBranchDTO branchRequest = objectMapper.convertValue(talkiMessage.getData(), TALKiCreateBranchDTO.class);
+                    TALKiCreateBranchDTO branchRequest = requireData(talkiMessage, TALKiCreateBranchDTO.class);
                     response = talkiService.handleCreateBranch(branchRequest);
                     break;
                     
                 case "CHARACTER_MESSAGE":
-                    TALKiCharacterMessageDTO messageRequest = objectMapper.convertValue(talkiMessage.getData(), TALKiCharacterMessageDTO.class);
+                    TALKiCharacterMessageDTO messageRequest = requireData(talkiMessage, TALKiCharacterMessageDTO.class);
                     response = talkiService.handleCharacterMessage(messageRequest);
                     break;
                     
                 case "CONFIGURE_TTS":
-                    TALKiTTSConfigDTO ttsRequest = objectMapper.convertValue(talkiMessage.getData(), TALKiTTSConfigDTO.class);
+                    TALKiTTSConfigDTO ttsRequest = requireData(talkiMessage, TALKiTTSConfigDTO.class);
                     response = talkiService.handleTTSConfiguration(ttsRequest);
                     break;
                     
                 default:
                     // Fallback to legacy message handling
-                    MessageDTO legacyMsg = objectMapper.readValue(payload, MessageDTO.class);
+                    MessageDTO legacyMsg = new MessageDTO();
+                    legacyMsg.setSenderId(talkiMessage.getSenderId());
+                    legacyMsg.setSenderName(talkiMessage.getSenderName());
+                    legacyMsg.setContent(talkiMessage.getContent());
                     String roomId = getRoomIdFromSession(session);
                     legacyMsg.setTimestamp(LocalDateTime.now());
                     legacyMsg.setRoomId(roomId);
@@ -92,20 +124,28 @@ public class TalkiWebSocketHandler extends TextWebSocketHandler {
             
             // Send response back to client for TALKi messages
             if (response != null) {
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+                outboundDispatcher.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
             }
             
         } catch (Exception e) {
             System.err.println("Error handling text message: " + e.getMessage());
             TALKiResponseDTO errorResponse = TALKiResponseDTO.error("MESSAGE_PROCESSING_ERROR", e.getMessage());
             try {
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(errorResponse)));
+                outboundDispatcher.send(session, new TextMessage(objectMapper.writeValueAsString(errorResponse)));
             } catch (Exception sendError) {
                 System.err.println("Failed to send error response: " + sendError.getMessage());
             }
         }
     }
 
+    // type에 맞는 data가 없으면 처리할 수 없으므로 오류 응답으로 이어지게 함
+    private static <T> T requireData(TALKiInboundMessageDTO message, Class<T> type) {
+        if (!type.isInstance(message.getData())) {
+            throw new IllegalArgumentException("Missing data for " + message.getType());
+        }
+        return type.cast(message.getData());
+    }
+
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
         // DB 서버 역할이므로 바이너리 메시지 처리는 간단히 로깅만 하거나 무시
@@ -115,7 +155,15 @@ public class TalkiWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        sessions.remove(session.getId());
+        outboundDispatcher.unregister(session);
+        leaveRoom(session);
+        // 이미 받은 프레임(JOIN_SESSION 등)이 처리된 뒤에 참가자 등록을 해제
+        inboundDispatcher.close(session, () -> {
+            String participantId = sessionParticipants.remove(session.getId());
+            if (participantId != null) {
+                talkiService.unregisterSession(participantId, session);
+            }
+        });
         System.out.println("WebSocket connection closed: " + session.getId() + " with status: " + status.getCode());
     }
 
@@ -125,17 +173,63 @@ public class TalkiWebSocketHandler extends TextWebSocketHandler {
     }
 
     // 특정 방에 메시지 전송
-    private void sendMessageToRoom(String roomId, String jsonMessage) throws Exception {
-        for (WebSocketSession s : sessions.values()) {
-            String sessionRoomId = getRoomIdFromSession(s);
-            if (s.isOpen() && sessionRoomId != null && sessionRoomId.equals(roomId)) {
-                s.sendMessage(new TextMessage(jsonMessage));
+    // 이 파드의 방 참가자에게 전달한 뒤 다른 파드에도 전달되도록 발행
+    private void sendMessageToRoom(String roomId, String jsonMessage) {
+        byte[] payload = jsonMessage.getBytes(StandardCharsets.UTF_8);
+        deliverRoomFrame(roomId, payload);
+        roomEventPublisher.publishLegacyRoom(roomId, payload);
+    }
+
+    /**
+     * 이 파드에 연결된 방 참가자에게 인코딩된 프레임을 전달합니다.
+     * @return 송신 큐에 넣은 세션 수
+     */
+    public int deliverRoomFrame(String roomId, byte[] payload) {
+        Set<WebSocketSession> members = roomSessions.get(roomId);
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+        TextMessage frame = new TextMessage(payload);
+        int delivered = 0;
+        for (WebSocketSession s : members) {
+            if (s.isOpen() && outboundDispatcher.send(s, frame)) {
+                delivered++;
             }
         }
+        return delivered;
     }
 
-    // 세션 URL에서 roomId 추출 (예: /ws/{roomId})
+    // 연결 시 roomId를 한 번만 파싱해 세션 속성에 저장하고 방 인덱스에 등록
+    private void joinRoom(WebSocketSession session) {
+        String roomId = parseRoomId(session);
+        session.getAttributes().put(ROOM_ID_ATTRIBUTE, roomId);
+        roomSessions.compute(roomId, (key, members) -> {
+            Set<WebSocketSession> result = members != null ? members : ConcurrentHashMap.newKeySet();
+            result.add(session);
+            return result;
+        });
+    }
+
+    // 연결 종료 시 방 인덱스에서 제거하고, 빈 방은 인덱스에서 삭제
+    private void leaveRoom(WebSocketSession session) {
+        Object roomId = session.getAttributes().get(ROOM_ID_ATTRIBUTE);
+        if (roomId == null) {
+            return;
+        }
+        roomSessions.computeIfPresent(roomId.toString(), (key, members) -> {
+            members.remove(session);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    // 세션 속성에 캐시된 roomId 조회
     private String getRoomIdFromSession(WebSocketSession session) {
+        Object roomId = session.getAttributes().get(ROOM_ID_ATTRIBUTE);
+        return roomId != null ? roomId.toString() : parseRoomId(session);
+    }
+
+    // 세션 URL에서 roomId 추출 (예: /ws/{roomId})
+    private String parseRoomId(WebSocketSession session) {
         String path = session.getUri().getPath();
         String[] parts = path.split("/");
         if (parts.length > 2) {
@@ -144,4 +238,3 @@ public class TalkiWebSocketHandler extends TextWebSocketHandler {
         return "default"; // roomId가 없는 경우 기본값
     }
 }
-
@@ -0,0 +1,96 @@
+package com.langhakers.talki.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collection;
+
+/**
+ * 하나의 메시지를 여러 WebSocket 세션에 전송하는 브로드캐스트 엔진.
+ * 메시지는 수신자 수와 관계없이 한 번만 JSON(UTF-8)으로 인코딩되고,
+ * 불변 TextMessage 하나를 모든 수신자가 공유합니다.
+ * 실제 전송은 세션별 송신 큐({@link WebSocketOutboundDispatcher})를 통해 비동기로 이루어집니다.
+ */
+@Component
+public class WebSocketBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final WebSocketOutboundDispatcher outboundDispatcher;
+    private final Counter encodeCounter;
+    private final Counter deliveryCounter;
+    private final Counter failureCounter;
+
+    @Autowired
+    public WebSocketBroadcaster(ObjectMapper objectMapper, WebSocketOutboundDispatcher outboundDispatcher,
+                                MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.outboundDispatcher = outboundDispatcher;
+        this.encodeCounter = Counter.builder("talki.websocket.broadcast.encodes")
+                .description("브로드캐스트 메시지 JSON 인코딩 횟수")
+                .register(meterRegistry);
+        this.deliveryCounter = Counter.builder("talki.websocket.broadcast.deliveries")
+                .description("브로드캐스트 메시지 전달 횟수 (수신자 단위)")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("talki.websocket.broadcast.failures")
+                .description("브로드캐스트 메시지 전달 실패 횟수 (닫힌 세션, 큐 초과 연결 종료)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 메시지를 한 번 인코딩한 뒤 모든 수신자에게 전송합니다.
+     * @return 실제로 전달된 수신자 수
+     */
+    public int broadcast(Object message, Collection<WebSocketSession> recipients) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        TextMessage frame;
+        try {
+            frame = encode(message);
+        } catch (JsonProcessingException e) {
+            logger.error("브로드캐스트 메시지 인코딩 실패", e);
+            return 0;
+        }
+        return fanOut(frame, recipients);
+    }
+
+    /**
+     * 메시지를 UTF-8 JSON 바이트로 한 번 인코딩합니다.
+     * TextMessage는 불변이므로 여러 세션에서 그대로 재사용할 수 있습니다.
+     */
+    public TextMessage encode(Object message) throws JsonProcessingException {
+        byte[] payload = objectMapper.writeValueAsBytes(message);
+        encodeCounter.increment();
+        return new TextMessage(payload);
+    }
+
+    /**
+     * 이미 인코딩된 프레임을 수신자들의 송신 큐에 넣습니다.
+     */
+    public int fanOut(TextMessage frame, Collection<WebSocketSession> recipients) {
+        int delivered = 0;
+        for (WebSocketSession session : recipients) {
+            if (session == null || !session.isOpen()) {
+                continue;
+            }
+            if (outboundDispatcher.send(session, frame)) {
+                delivered++;
+            } else {
+                failureCounter.increment();
+                logger.debug("브로드캐스트 전송 실패: session={}", session.getId());
+            }
+        }
+        deliveryCounter.increment(delivered);
+        return delivered;
+    }
+}
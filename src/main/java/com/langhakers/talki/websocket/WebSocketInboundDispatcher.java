@@ -0,0 +1,235 @@
+package com.langhakers.talki.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket 세션별 수신 처리 큐.
+ * 수신 프레임 처리(DB 저장 포함)를 컨테이너 I/O 스레드 대신 가상 스레드나 제한된 워커 풀에서 실행합니다.
+ * 세션마다 한 번에 하나의 작업만 실행되므로 같은 세션의 프레임 처리 순서는 유지됩니다.
+ */
+@Component
+public class WebSocketInboundDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketInboundDispatcher.class);
+
+    public enum Mode {
+        INLINE,     // 기존처럼 프레임을 받은 컨테이너 스레드에서 바로 처리
+        VIRTUAL,    // 작업마다 가상 스레드에서 처리
+        POOL        // 크기가 제한된 플랫폼 스레드 풀에서 처리
+    }
+
+    private final Mode mode;
+    private final int capacity;
+    private final ExecutorService workers;
+    private final Map<String, InboundQueue> queues = new ConcurrentHashMap<>();
+
+    private final Timer queueWaitTimer;
+    private final Timer handleTimer;
+    private final Counter rejectedCounter;
+    private final Counter failureCounter;
+
+    @Autowired
+    public WebSocketInboundDispatcher(
+            @Value("${talki.websocket.inbound.mode:VIRTUAL}") Mode mode,
+            @Value("${talki.websocket.inbound.capacity:256}") int capacity,
+            @Value("${talki.websocket.inbound.pool-size:16}") int poolSize,
+            MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.capacity = capacity;
+        this.workers = switch (mode) {
+            case INLINE -> null;
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-inbound-", 0).factory());
+            case POOL -> {
+                AtomicInteger threadIndex = new AtomicInteger();
+                yield Executors.newFixedThreadPool(poolSize, runnable -> {
+                    Thread thread = new Thread(runnable, "ws-inbound-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        };
+
+        Gauge.builder("talki.websocket.inbound.queue.depth", this, WebSocketInboundDispatcher::totalDepth)
+                .description("모든 세션 수신 큐에 대기 중인 프레임 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.websocket.inbound.queue.max-depth", this, WebSocketInboundDispatcher::maxDepth)
+                .description("가장 깊은 세션 수신 큐의 대기 프레임 수")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("talki.websocket.inbound.queue-wait")
+                .description("수신 프레임이 처리되기 전 큐에서 기다린 시간")
+                .tag("mode", mode.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.handleTimer = Timer.builder("talki.websocket.inbound.handle")
+                .description("수신 프레임 처리 시간")
+                .tag("mode", mode.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("talki.websocket.inbound.rejected")
+                .description("세션 수신 큐 초과로 거절된 프레임 수")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("talki.websocket.inbound.failures")
+                .description("처리 중 예외가 발생한 프레임 수")
+                .register(meterRegistry);
+        logger.info("WebSocket 수신 처리 모드: {}", mode);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 세션의 수신 작업을 순서대로 실행되도록 넣습니다. INLINE 모드에서는 호출 스레드에서 바로 실행합니다.
+     * @return 실행 예정이면 true, 세션 큐가 가득 찼거나 세션이 닫혔으면 false
+     */
+    public boolean submit(WebSocketSession session, Runnable task) {
+        if (workers == null) {
+            run(task, System.nanoTime());
+            return true;
+        }
+        return queues.computeIfAbsent(session.getId(), id -> new InboundQueue(id)).offer(task, false);
+    }
+
+    /**
+     * 연결 종료 처리를 세션 큐의 마지막 작업으로 넣습니다 (이미 받은 프레임 처리 뒤에 실행).
+     * 큐가 비면 세션 큐를 제거합니다.
+     */
+    public void close(WebSocketSession session, Runnable finalTask) {
+        if (workers == null) {
+            run(finalTask, System.nanoTime());
+            return;
+        }
+        InboundQueue queue = queues.computeIfAbsent(session.getId(), id -> new InboundQueue(id));
+        queue.offer(finalTask, true);
+    }
+
+    public int getQueueDepth(WebSocketSession session) {
+        InboundQueue queue = queues.get(session.getId());
+        return queue != null ? queue.size() : 0;
+    }
+
+    private void run(Runnable task, long enqueuedNanos) {
+        long start = System.nanoTime();
+        queueWaitTimer.record(start - enqueuedNanos, TimeUnit.NANOSECONDS);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            logger.error("WebSocket 수신 처리 중 오류", e);
+        } finally {
+            handleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private double totalDepth() {
+        long total = 0;
+        for (InboundQueue queue : queues.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    private double maxDepth() {
+        int max = 0;
+        for (InboundQueue queue : queues.values()) {
+            max = Math.max(max, queue.size());
+        }
+        return max;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 세션 하나의 수신 큐. 한 번에 하나의 워커만 큐를 비우므로 세션 내 처리 순서가 유지됩니다.
+     */
+    private final class InboundQueue {
+
+        private final String sessionId;
+        private final ArrayDeque<PendingTask> pending = new ArrayDeque<>();
+        private boolean draining = false;
+        private boolean closing = false;
+
+        InboundQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        boolean offer(Runnable task, boolean last) {
+            synchronized (this) {
+                if (closing) {
+                    return false;
+                }
+                if (!last && pending.size() >= capacity) {
+                    rejectedCounter.increment();
+                    logger.warn("수신 큐 초과로 프레임 거절: session={}, capacity={}", sessionId, capacity);
+                    return false;
+                }
+                closing = last;
+                pending.addLast(new PendingTask(task, System.nanoTime()));
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            workers.execute(this::drain);
+            return true;
+        }
+
+        int size() {
+            synchronized (this) {
+                return pending.size();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                PendingTask next;
+                synchronized (this) {
+                    next = pending.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        if (closing) {
+                            queues.remove(sessionId, this);
+                        }
+                        return;
+                    }
+                }
+                run(next.task, next.enqueuedNanos);
+            }
+        }
+    }
+
+    private record PendingTask(Runnable task, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,294 @@
+package com.langhakers.talki.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket 세션별 송신 큐.
+ * 각 세션은 크기가 제한된 큐를 가지며, 큐에 메시지가 생기면 가상 스레드 하나가 그 세션의 큐를 비우면서
+ * 실제 전송을 수행합니다. writer 수가 고정되어 있지 않으므로 느린 클라이언트가 전송에 묶여 있어도
+ * 다른 세션의 전송은 기다리지 않습니다. 호출 스레드는 큐에 넣기만 하므로 Tomcat 워커도 막히지 않습니다.
+ * 한 번의 전송이 send-time-limit-ms를 넘기면 정책과 무관하게 연결을 끊습니다.
+ * 연결 종료는 별도 closer 가상 스레드에서 수행해 전송 경로나 watchdog을 막지 않습니다.
+ */
+@Component
+public class WebSocketOutboundDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketOutboundDispatcher.class);
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,    // 가장 오래된 메시지를 버리고 새 메시지를 넣음
+        DISCONNECT      // 느린 클라이언트의 연결을 끊음
+    }
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long sendTimeLimitNanos;
+    // 세션 큐 drain마다 가상 스레드 하나 (세션당 동시에 하나만 실행)
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ws-writer-", 0).factory());
+    // 느린 클라이언트 연결 종료 (close도 블로킹될 수 있어 writer·watchdog과 분리)
+    private final ExecutorService closers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ws-closer-", 0).factory());
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ws-send-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, OutboundQueue> queues = new ConcurrentHashMap<>();
+
+    private final Counter droppedCounter;
+    private final Counter disconnectCounter;
+    private final Counter sendFailureCounter;
+    private final Counter sendTimeoutCounter;
+
+    @Autowired
+    public WebSocketOutboundDispatcher(
+            @Value("${talki.websocket.outbound.capacity:256}") int capacity,
+            @Value("${talki.websocket.outbound.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+            @Value("${talki.websocket.outbound.send-time-limit-ms:5000}") long sendTimeLimitMs,
+            MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+
+        Gauge.builder("talki.websocket.outbound.queue.depth", this, WebSocketOutboundDispatcher::totalDepth)
+                .description("모든 세션 송신 큐에 대기 중인 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.websocket.outbound.queue.max-depth", this, WebSocketOutboundDispatcher::maxDepth)
+                .description("가장 깊은 세션 송신 큐의 대기 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("talki.websocket.outbound.sessions", queues, Map::size)
+                .description("송신 큐가 등록된 세션 수")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("talki.websocket.outbound.dropped")
+                .description("큐 초과로 버려진 메시지 수")
+                .register(meterRegistry);
+        this.disconnectCounter = Counter.builder("talki.websocket.outbound.disconnects")
+                .description("큐 초과로 연결이 끊긴 느린 클라이언트 수")
+                .register(meterRegistry);
+        this.sendFailureCounter = Counter.builder("talki.websocket.outbound.send-failures")
+                .description("전송 실패 횟수")
+                .register(meterRegistry);
+        this.sendTimeoutCounter = Counter.builder("talki.websocket.outbound.send-timeouts")
+                .description("전송 시간 제한 초과로 연결이 끊긴 세션 수")
+                .register(meterRegistry);
+
+        long checkIntervalMs = Math.max(100, sendTimeLimitMs / 4);
+        watchdog.scheduleWithFixedDelay(this::checkSendTimeouts, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void register(WebSocketSession session) {
+        // Tomcat의 블로킹 전송도 같은 시간 제한에서 실패하도록 설정
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session container = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (container != null) {
+                container.getUserProperties().put("org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeLimitNanos));
+            }
+        }
+        queues.computeIfAbsent(session.getId(), id -> new OutboundQueue(session));
+    }
+
+    public void unregister(WebSocketSession session) {
+        OutboundQueue queue = queues.remove(session.getId());
+        if (queue != null) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * 메시지를 세션의 송신 큐에 넣습니다. 전송은 writer 스레드에서 비동기로 수행됩니다.
+     * 등록되지 않았거나 이미 해제된 세션의 메시지는 버립니다.
+     * @return 큐에 들어갔으면 true, 세션이 닫혔거나 연결이 끊겼으면 false
+     */
+    public boolean send(WebSocketSession session, WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        OutboundQueue queue = queues.get(session.getId());
+        return queue != null && queue.offer(message);
+    }
+
+    public int getQueueDepth(WebSocketSession session) {
+        OutboundQueue queue = queues.get(session.getId());
+        return queue != null ? queue.size() : 0;
+    }
+
+    private double totalDepth() {
+        long total = 0;
+        for (OutboundQueue queue : queues.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    private double maxDepth() {
+        int max = 0;
+        for (OutboundQueue queue : queues.values()) {
+            max = Math.max(max, queue.size());
+        }
+        return max;
+    }
+
+    /**
+     * 전송 중인 메시지가 시간 제한을 넘긴 세션의 연결을 끊습니다.
+     * 연결이 닫히면 막혀 있던 전송이 실패하면서 해당 세션의 writer가 끝납니다.
+     */
+    void checkSendTimeouts() {
+        long now = System.nanoTime();
+        for (OutboundQueue queue : queues.values()) {
+            long started = queue.sendStartedNanos;
+            if (started != 0 && now - started > sendTimeLimitNanos && queue.markClosing()) {
+                sendTimeoutCounter.increment();
+                disconnectCounter.increment();
+                closers.execute(() -> queue.disconnect("전송 시간 제한 초과"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        watchdog.shutdownNow();
+        writers.shutdown();
+        closers.shutdown();
+        try {
+            if (!writers.awaitTermination(5, TimeUnit.SECONDS)) {
+                writers.shutdownNow();
+            }
+            if (!closers.awaitTermination(1, TimeUnit.SECONDS)) {
+                closers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writers.shutdownNow();
+            closers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 세션 하나의 송신 큐. 한 번에 하나의 writer만 큐를 비우므로 세션 내 전송 순서가 유지됩니다.
+     */
+    private final class OutboundQueue {
+
+        private final WebSocketSession session;
+        private final ArrayDeque<WebSocketMessage<?>> pending = new ArrayDeque<>();
+        private boolean draining = false;
+        private boolean closing = false;
+        // 전송 시작 시각 (전송 중이 아니면 0)
+        private volatile long sendStartedNanos;
+
+        OutboundQueue(WebSocketSession session) {
+            this.session = session;
+        }
+
+        boolean offer(WebSocketMessage<?> message) {
+            synchronized (this) {
+                if (closing) {
+                    return false;
+                }
+                if (pending.size() >= capacity) {
+                    if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                        closing = true;
+                        droppedCounter.increment(pending.size() + 1);
+                        pending.clear();
+                        disconnectCounter.increment();
+                        closers.execute(() -> disconnect("송신 큐 초과"));
+                        return false;
+                    }
+                    pending.pollFirst();
+                    droppedCounter.increment();
+                }
+                pending.addLast(message);
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            writers.execute(this::drain);
+            return true;
+        }
+
+        int size() {
+            synchronized (this) {
+                return pending.size();
+            }
+        }
+
+        /**
+         * @return 이번 호출로 closing 상태가 되었으면 true
+         */
+        boolean markClosing() {
+            synchronized (this) {
+                if (closing) {
+                    return false;
+                }
+                closing = true;
+                droppedCounter.increment(pending.size());
+                pending.clear();
+                return true;
+            }
+        }
+
+        void clear() {
+            synchronized (this) {
+                closing = true;
+                pending.clear();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                WebSocketMessage<?> message;
+                synchronized (this) {
+                    message = pending.pollFirst();
+                    if (message == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (!session.isOpen()) {
+                    clear();
+                    continue;
+                }
+                sendStartedNanos = System.nanoTime();
+                try {
+                    session.sendMessage(message);
+                } catch (Exception e) {
+                    sendFailureCounter.increment();
+                    logger.warn("WebSocket 전송 실패: session={}, error={}", session.getId(), e.getMessage());
+                } finally {
+                    sendStartedNanos = 0;
+                }
+            }
+        }
+
+        private void disconnect(String reason) {
+            logger.warn("느린 클라이언트 연결 종료 ({}): session={}, capacity={}", reason, session.getId(), capacity);
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (Exception e) {
+                logger.debug("느린 클라이언트 연결 종료 실패: session={}", session.getId(), e);
+            }
+        }
+    }
+}
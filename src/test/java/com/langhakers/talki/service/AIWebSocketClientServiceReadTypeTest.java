@@ -0,0 +1,49 @@
+package com.langhakers.talki.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스트리밍 pre-parse(readType)가 최상위 type만 읽고 중첩 값이나 잘못된 형식에 속지 않는지 확인합니다.
+ */
+class AIWebSocketClientServiceReadTypeTest {
+
+    private final AIWebSocketClientService service = new AIWebSocketClientService(null, null);
+
+    @Test
+    void skipsNestedObjectBeforeType() throws Exception {
+        String frame = "{\"meta\":{\"type\":\"nested\",\"inner\":{\"type\":\"deeper\"},\"list\":[{\"type\":\"x\"}]},"
+                + "\"type\":\"final_user_request\"}";
+
+        assertThat(service.readType(frame)).isEqualTo("final_user_request");
+    }
+
+    @Test
+    void readsTypeAfterLargeFields() throws Exception {
+        String frame = "{\"content\":\"" + "가나다라마바사 ".repeat(20_000) + "\","
+                + "\"words\":[" + "1,".repeat(10_000) + "1],"
+                + "\"type\":\"final_assistant_answer\"}";
+
+        assertThat(service.readType(frame)).isEqualTo("final_assistant_answer");
+    }
+
+    @Test
+    void returnsNullForNonStringType() throws Exception {
+        assertThat(service.readType("{\"type\":42,\"content\":\"a\"}")).isNull();
+        assertThat(service.readType("{\"type\":{\"name\":\"final_user_request\"}}")).isNull();
+        assertThat(service.readType("{\"type\":null}")).isNull();
+    }
+
+    @Test
+    void returnsNullForNonObjectFrame() throws Exception {
+        assertThat(service.readType("[{\"type\":\"final_user_request\"}]")).isNull();
+        assertThat(service.readType("\"final_user_request\"")).isNull();
+        assertThat(service.readType("42")).isNull();
+    }
+
+    @Test
+    void returnsNullWhenTypeMissing() throws Exception {
+        assertThat(service.readType("{\"content\":\"a\",\"role\":\"user\"}")).isNull();
+    }
+}
@@ -0,0 +1,224 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.AIConversationBatchResultDTO;
+import com.langhakers.talki.dto.AIConversationDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.servlets.DefaultServlet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 내장 Tomcat에 띄운 스텁 AI 서버로 수신 처리량, 재연결, 저장 재시도, 종료 시 큐 비우기를 확인합니다.
+ */
+class AIWebSocketClientServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AIWebSocketClientServiceTest.class);
+
+    private static final String SAVED_FRAME = "{\"type\":\"final_user_request\",\"content\":\"안녕하세요\",\"sessionId\":\"s1\"}";
+    private static final String SKIPPED_FRAME = "{\"type\":\"partial_transcript\",\"content\":\"안녕\"}";
+
+    @TempDir
+    Path baseDir;
+
+    private final StubAIServer stubServer = new StubAIServer();
+    private final AtomicInteger savedCount = new AtomicInteger();
+    private AIConversationService conversationService;
+    private SimpleMeterRegistry meterRegistry;
+    private AIWebSocketClientService client;
+    private Tomcat tomcat;
+
+    @BeforeEach
+    void setUp() {
+        conversationService = mock(AIConversationService.class);
+        doAnswer(invocation -> saved(invocation.getArgument(0))).when(conversationService).saveConversations(anyList());
+        meterRegistry = new SimpleMeterRegistry();
+        client = new AIWebSocketClientService(conversationService, meterRegistry);
+        ReflectionTestUtils.setField(client, "reconnectInterval", 1);
+        ReflectionTestUtils.setField(client, "reconnectInitialMs", 50L);
+        ReflectionTestUtils.setField(client, "maxMessageKb", 512);
+        ReflectionTestUtils.setField(client, "frameQueueCapacity", 1024);
+        ReflectionTestUtils.setField(client, "ingestQueueCapacity", 10000);
+        ReflectionTestUtils.setField(client, "ingestBatchSize", 100);
+        ReflectionTestUtils.setField(client, "ingestFlushIntervalMs", 20L);
+        ReflectionTestUtils.setField(client, "ingestMaxAttempts", 3);
+        ReflectionTestUtils.setField(client, "ingestRetryBackoffMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.destroy();
+        if (tomcat != null) {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    @Test
+    void ingestsFramesFromServerInBatches() throws Exception {
+        connect();
+        int frames = 5000;
+        long startNanos = System.nanoTime();
+        Session serverSession = stubServer.sessions.get(0);
+        for (int i = 0; i < frames; i++) {
+            serverSession.getBasicRemote().sendText(SAVED_FRAME);
+            serverSession.getBasicRemote().sendText(SKIPPED_FRAME);
+        }
+
+        await(() -> savedCount.get() == frames, 15_000);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.info("AI 웹소켓 수신 처리량: {} 프레임 / {}ms", frames * 2, elapsedMs);
+
+        assertThat(meterRegistry.counter("talki.ai.ws.frames").count()).isEqualTo(frames * 2);
+        assertThat(meterRegistry.counter("talki.ai.ws.ingested").count()).isEqualTo(frames);
+        // 프레임마다 저장하지 않고 배치로 묶임
+        assertThat(mockingDetails(conversationService).getInvocations()).hasSizeLessThan(frames / 10);
+    }
+
+    @Test
+    void reconnectsAfterServerClosesConnection() throws Exception {
+        connect();
+        stubServer.sessions.get(0).close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "restart"));
+
+        await(() -> stubServer.sessions.size() == 2, 10_000);
+        await(() -> "CONNECTED".equals(client.getConnectionStatus()), 5_000);
+        stubServer.sessions.get(1).getBasicRemote().sendText(SAVED_FRAME);
+
+        await(() -> savedCount.get() == 1, 5_000);
+        assertThat(meterRegistry.counter("talki.ai.ws.reconnects").count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void retriesBatchAfterTransientFailure() throws Exception {
+        doThrow(new IllegalStateException("connection reset"))
+                .doAnswer(invocation -> saved(invocation.getArgument(0)))
+                .when(conversationService).saveConversations(anyList());
+        client.init();
+
+        client.handleAIMessage(SAVED_FRAME);
+
+        await(() -> savedCount.get() == 1, 5_000);
+        verify(conversationService, atLeast(2)).saveConversations(anyList());
+        assertThat(meterRegistry.counter("talki.ai.ws.ingest-retries").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("talki.ai.ws.ingest-failed").count()).isZero();
+    }
+
+    @Test
+    void dropsBatchAfterMaxAttempts() throws Exception {
+        doThrow(new IllegalStateException("db down")).when(conversationService).saveConversations(anyList());
+        client.init();
+
+        client.handleAIMessage(SAVED_FRAME);
+
+        await(() -> meterRegistry.counter("talki.ai.ws.ingest-failed").count() == 1, 5_000);
+        verify(conversationService, atLeast(3)).saveConversations(anyList());
+        assertThat(meterRegistry.counter("talki.ai.ws.ingest-retries").count()).isEqualTo(2);
+    }
+
+    @Test
+    void shutdownDrainsQueuedFrames() throws Exception {
+        client.init();
+        @SuppressWarnings("unchecked")
+        BlockingQueue<String> frameQueue = (BlockingQueue<String>) ReflectionTestUtils.getField(client, "frameQueue");
+        int frames = 1000;
+        for (int i = 0; i < frames; i++) {
+            frameQueue.put(SAVED_FRAME);
+        }
+
+        client.destroy();
+
+        assertThat(savedCount.get()).isEqualTo(frames);
+    }
+
+    private void connect() throws Exception {
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", baseDir.toString());
+        // 매핑된 서블릿이 없으면 업그레이드 필터까지 가지 않고 404가 됨
+        Tomcat.addServlet(context, "default", new DefaultServlet());
+        context.addServletMappingDecoded("/", "default");
+        context.addServletContainerInitializer(new WsSci(), null);
+        context.addServletContainerInitializer((classes, servletContext) -> {
+            ServerContainer container = (ServerContainer) servletContext.getAttribute(ServerContainer.class.getName());
+            try {
+                container.addEndpoint(ServerEndpointConfig.Builder.create(StubAIServer.class, "/ws")
+                        .configurator(new ServerEndpointConfig.Configurator() {
+                            @Override
+                            public <T> T getEndpointInstance(Class<T> endpointClass) {
+                                return endpointClass.cast(stubServer);
+                            }
+                        })
+                        .build());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, null);
+        tomcat.start();
+
+        ReflectionTestUtils.setField(client, "aiWebSocketUrl",
+                "ws://localhost:" + connector.getLocalPort() + "/ws");
+        ReflectionTestUtils.setField(client, "autoConnect", true);
+        client.init();
+        await(() -> stubServer.sessions.size() == 1, 5_000);
+    }
+
+    private AIConversationBatchResultDTO saved(List<AIConversationDTO> batch) {
+        savedCount.addAndGet(batch.size());
+        return new AIConversationBatchResultDTO(true, batch.size(), batch.size(), 0, List.of());
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("조건 대기 시간 초과").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 연결된 세션을 기록하고 테스트가 직접 프레임을 보내거나 연결을 끊을 수 있게 하는 스텁 AI 서버
+     */
+    public static class StubAIServer extends Endpoint {
+
+        final List<Session> sessions = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+            sessions.add(session);
+        }
+    }
+}
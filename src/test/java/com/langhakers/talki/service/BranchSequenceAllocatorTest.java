@@ -0,0 +1,66 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.repository.BranchUtteranceRepository;
+import com.langhakers.talki.repository.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 순번 초기값이 두 저장 테이블 중 큰 값에서 이어지고, 저장 실패 시 순번이 소비되지 않는지 확인합니다.
+ */
+class BranchSequenceAllocatorTest {
+
+    private BranchUtteranceRepository utteranceRepository;
+    private ChatMessageRepository chatMessageRepository;
+    private BranchSequenceAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        utteranceRepository = mock(BranchUtteranceRepository.class);
+        chatMessageRepository = mock(ChatMessageRepository.class);
+        allocator = new BranchSequenceAllocator(utteranceRepository, chatMessageRepository);
+    }
+
+    @Test
+    void seedsFromLargestPersistedSequence() {
+        when(utteranceRepository.findMaxSequenceNumberByBranchId("b-1")).thenReturn(Optional.of(3));
+        when(chatMessageRepository.findMaxSequenceNumberByRoomId("b-1")).thenReturn(Optional.of(7));
+
+        assertThat(allocator.<Integer>allocate("b-1", sequence -> sequence)).isEqualTo(8);
+    }
+
+    @Test
+    void resumesAfterForgetWithoutReusingNumbers() {
+        when(utteranceRepository.findMaxSequenceNumberByBranchId("b-1")).thenReturn(Optional.empty());
+        when(chatMessageRepository.findMaxSequenceNumberByRoomId("b-1")).thenReturn(Optional.empty());
+        assertThat(allocator.<Integer>allocate("b-1", sequence -> sequence)).isEqualTo(1);
+        assertThat(allocator.<Integer>allocate("b-1", sequence -> sequence)).isEqualTo(2);
+
+        // 저장된 행에 순번이 남아 있으므로 카운터를 잊어도 이어서 발급
+        when(chatMessageRepository.findMaxSequenceNumberByRoomId("b-1")).thenReturn(Optional.of(2));
+        allocator.forget("b-1");
+
+        assertThat(allocator.<Integer>allocate("b-1", sequence -> sequence)).isEqualTo(3);
+    }
+
+    @Test
+    void failedWriteDoesNotConsumeSequence() {
+        when(utteranceRepository.findMaxSequenceNumberByBranchId("b-1")).thenReturn(Optional.empty());
+        when(chatMessageRepository.findMaxSequenceNumberByRoomId("b-1")).thenReturn(Optional.empty());
+        assertThat(allocator.<Integer>allocate("b-1", sequence -> sequence)).isEqualTo(1);
+
+        assertThatThrownBy(() -> allocator.<Integer>allocate("b-1", sequence -> {
+            throw new IllegalStateException("insert failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(allocator.current("b-1")).isEqualTo(1);
+        assertThat(allocator.<Integer>allocate("b-1", sequence -> sequence)).isEqualTo(2);
+    }
+}
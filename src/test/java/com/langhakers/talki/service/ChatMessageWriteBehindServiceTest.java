@@ -0,0 +1,104 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.entity.ChatMessage;
+import com.langhakers.talki.repository.ChatMessageBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 저장되지 않는 행이 있어도 재시도 횟수를 다 쓰면 행 단위로 저장하고 뒤의 메시지가 막히지 않는지 확인합니다.
+ */
+class ChatMessageWriteBehindServiceTest {
+
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private ChatMessageBatchRepository batchRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ChatMessageWriteBehindService service;
+    private final List<String> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        batchRepository = mock(ChatMessageBatchRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // 비활성 상태로 만들고 flush는 테스트에서 직접 호출
+        service = new ChatMessageWriteBehindService(batchRepository, meterRegistry,
+                false, 100, 10, 60_000, MAX_BATCH_ATTEMPTS);
+    }
+
+    @Test
+    void badRowIsDeadLetteredAfterMaxAttempts() {
+        doAnswer(invocation -> {
+            List<ChatMessage> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(message -> "bad".equals(message.getMessageKey()))) {
+                throw new DataIntegrityViolationException("duplicate messageKey");
+            }
+            batch.forEach(message -> stored.add(message.getMessageKey()));
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+
+        service.enqueue(message("m-1"));
+        service.enqueue(message("bad"));
+        service.enqueue(message("m-2"));
+
+        // 마지막 시도 전까지는 배치 전체가 재시도 대기
+        for (int attempt = 1; attempt < MAX_BATCH_ATTEMPTS; attempt++) {
+            flush();
+            assertThat(stored).isEmpty();
+        }
+        service.enqueue(message("m-3"));
+        flush();
+
+        assertThat(stored).containsExactly("m-1", "m-2", "m-3");
+        assertThat(meterRegistry.counter("talki.chat.write-behind.dead-letter").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("talki.chat.write-behind.flushed").count()).isEqualTo(3);
+        assertThat(service.getQueueSize()).isZero();
+    }
+
+    @Test
+    void transientFailureKeepsRowsForNextCycle() {
+        boolean[] databaseDown = {true};
+        doAnswer(invocation -> {
+            if (databaseDown[0]) {
+                throw new QueryTimeoutException("db down");
+            }
+            List<ChatMessage> batch = invocation.getArgument(0);
+            batch.forEach(message -> stored.add(message.getMessageKey()));
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+
+        service.enqueue(message("m-1"));
+        service.enqueue(message("m-2"));
+        for (int attempt = 0; attempt < MAX_BATCH_ATTEMPTS + 1; attempt++) {
+            flush();
+        }
+        assertThat(meterRegistry.counter("talki.chat.write-behind.dead-letter").count()).isZero();
+
+        databaseDown[0] = false;
+        flush();
+
+        assertThat(stored).containsExactly("m-1", "m-2");
+    }
+
+    private void flush() {
+        ReflectionTestUtils.invokeMethod(service, "flushSafely");
+    }
+
+    private static ChatMessage message(String messageKey) {
+        ChatMessage message = new ChatMessage("room-1", "u-1", "민지", "안녕");
+        message.setMessageKey(messageKey);
+        return message;
+    }
+}
@@ -0,0 +1,195 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.config.RoomEventKafkaConfig;
+import com.langhakers.talki.websocket.TalkiWebSocketHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 두 파드를 흉내 내 한 파드가 발행한 룸 이벤트와 TTS 라우팅 무효화가 다른 파드의 리스너로 전달되는지 확인합니다.
+ */
+@SpringJUnitConfig(RoomEventFanoutTest.TestConfig.class)
+@EmbeddedKafka(partitions = 1, topics = RoomEventFanoutTest.TOPIC)
+@TestPropertySource(properties = {
+        "talki.cluster.fanout.enabled=true",
+        "talki.cluster.fanout.topic=" + RoomEventFanoutTest.TOPIC,
+        "talki.cluster.fanout.partitions=1"
+})
+class RoomEventFanoutTest {
+
+    static final String TOPIC = "talki.room-events.test";
+
+    @Autowired
+    private TALKiSimpleService talkiService;
+
+    @Autowired
+    private TalkiWebSocketHandler legacyHandler;
+
+    @Autowired
+    private TTSRoutingCache routingCache;
+
+    @Autowired
+    private RoomEventPublisher localPublisher;
+
+    @Autowired
+    @Qualifier("roomEventKafkaTemplate")
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    private RoomEventPublisher remotePublisher;
+
+    @BeforeEach
+    void setUp() {
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+        }
+        // 같은 토픽을 쓰는 다른 파드의 발행자 (nodeId가 다름)
+        remotePublisher = new RoomEventPublisher(new FixedProvider<>(kafkaTemplate), TOPIC, new SimpleMeterRegistry());
+        reset(talkiService, legacyHandler, routingCache);
+    }
+
+    @Test
+    void listenerUsesManualAssignmentWithoutConsumerGroup() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainers().iterator().next();
+        assertThat(container.getGroupId()).isNull();
+        assertThat(container.getAssignedPartitions()).hasSize(broker.getPartitionsPerTopic());
+    }
+
+    @Test
+    void sessionEventFromOtherPodIsDelivered() {
+        byte[] payload = "{\"type\":\"CHARACTER_MESSAGE\"}".getBytes(StandardCharsets.UTF_8);
+
+        remotePublisher.publish("session-1", "participant-1", payload);
+
+        verify(talkiService, timeout(10_000)).deliverRoomEvent(eq("session-1"), eq("participant-1"), eq(payload));
+        verify(legacyHandler, never()).deliverRoomFrame(any(), any());
+    }
+
+    @Test
+    void legacyRoomFrameFromOtherPodIsDelivered() {
+        byte[] payload = "{\"content\":\"hi\"}".getBytes(StandardCharsets.UTF_8);
+
+        remotePublisher.publishLegacyRoom("room-1", payload);
+
+        verify(legacyHandler, timeout(10_000)).deliverRoomFrame(eq("room-1"), eq(payload));
+        verify(talkiService, never()).deliverRoomEvent(any(), any(), any());
+    }
+
+    @Test
+    void routingInvalidationFromOtherPodEvictsLocalCache() {
+        remotePublisher.publishRoutingInvalidation("session-4", "ai1");
+
+        verify(routingCache, timeout(10_000)).invalidateLocal("session-4", "ai1");
+        verify(talkiService, never()).deliverRoomEvent(any(), any(), any());
+        verify(legacyHandler, never()).deliverRoomFrame(any(), any());
+    }
+
+    @Test
+    void ownEventsAreNotDeliveredTwice() {
+        byte[] payload = "{}".getBytes(StandardCharsets.UTF_8);
+
+        localPublisher.publish("session-2", null, payload);
+        // 이후 다른 파드 이벤트가 도착한 것을 확인해 앞의 이벤트가 이미 소비되었음을 보장
+        remotePublisher.publish("session-3", null, payload);
+
+        verify(talkiService, timeout(10_000)).deliverRoomEvent(eq("session-3"), any(), any());
+        verify(talkiService, after(200).never()).deliverRoomEvent(eq("session-2"), any(), any());
+    }
+
+    @Configuration
+    @EnableKafka
+    @Import({RoomEventKafkaConfig.class, RoomEventPublisher.class, RoomEventListener.class})
+    static class TestConfig {
+
+        @Bean
+        KafkaProperties kafkaProperties(@Value("${spring.embedded.kafka.brokers}") String brokers) {
+            KafkaProperties properties = new KafkaProperties();
+            properties.setBootstrapServers(List.of(brokers.split(",")));
+            return properties;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TALKiSimpleService talkiService() {
+            return mock(TALKiSimpleService.class);
+        }
+
+        @Bean
+        TalkiWebSocketHandler legacyHandler() {
+            return mock(TalkiWebSocketHandler.class);
+        }
+
+        @Bean
+        TTSRoutingCache routingCache() {
+            return mock(TTSRoutingCache.class);
+        }
+    }
+
+    private static final class FixedProvider<T> implements org.springframework.beans.factory.ObjectProvider<T> {
+        private final T value;
+
+        private FixedProvider(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T getObject() {
+            return value;
+        }
+
+        @Override
+        public T getObject(Object... args) {
+            return value;
+        }
+
+        @Override
+        public T getIfAvailable() {
+            return value;
+        }
+
+        @Override
+        public T getIfUnique() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.service.TALKiSessionStore.TALKiParticipantData;
+import com.langhakers.talki.service.TALKiSessionStore.TALKiSessionData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 세션 참가자가 participantId별로 하나만 유지되고 추정 사용량에 반영되는지 확인합니다.
+ */
+class TALKiSessionStoreTest {
+
+    private TALKiSessionStore store;
+    private TALKiSessionData session;
+
+    @BeforeEach
+    void setUp() {
+        // idle TTL 0분: sweep 때 연결된 참가자가 없는 세션은 바로 제거
+        store = new TALKiSessionStore(new SimpleMeterRegistry(), mock(BranchSequenceAllocator.class),
+                200, 0, 10_000, 64, 30);
+        session = store.getOrCreateSession("s-1", id -> {
+            TALKiSessionData data = new TALKiSessionData();
+            data.sessionId = id;
+            data.participants = new ConcurrentHashMap<>();
+            return data;
+        });
+    }
+
+    @Test
+    void rejoinReplacesParticipant() {
+        for (int i = 0; i < 100; i++) {
+            store.putParticipant("s-1", participant("p-1"));
+        }
+        store.putParticipant("s-1", participant("p-2"));
+        long bytes = store.getEstimatedBytes();
+
+        store.putParticipant("s-1", participant("p-1"));
+
+        assertThat(session.participants).containsOnlyKeys("p-1", "p-2");
+        assertThat(store.getEstimatedBytes()).isEqualTo(bytes);
+    }
+
+    @Test
+    void removedParticipantIsNoLongerCounted() {
+        store.putParticipant("s-1", participant("p-1"));
+        assertThat(store.getEstimatedBytes()).isPositive();
+
+        store.removeParticipant("s-1", "p-1");
+
+        assertThat(session.participants).isEmpty();
+        assertThat(store.getEstimatedBytes()).isZero();
+    }
+
+    @Test
+    void evictedSessionReleasesParticipantBytes() throws Exception {
+        store.putParticipant("s-1", participant("p-1"));
+        Thread.sleep(5);
+
+        store.sweep();
+
+        assertThat(store.getSession("s-1")).isNull();
+        assertThat(store.getEstimatedBytes()).isZero();
+        assertThat(store.putParticipant("s-1", participant("p-2"))).isFalse();
+    }
+
+    private static TALKiParticipantData participant(String participantId) {
+        TALKiParticipantData participant = new TALKiParticipantData();
+        participant.participantId = participantId;
+        participant.participantName = "민지";
+        participant.participantType = "HUMAN";
+        participant.joinedAt = LocalDateTime.now();
+        participant.isActive = true;
+        return participant;
+    }
+}
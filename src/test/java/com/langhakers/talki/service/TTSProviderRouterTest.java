@@ -0,0 +1,156 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.TTSSynthesisRequest;
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.TTSProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 반쯤 열린 서킷 브레이커의 시험 요청이 결과 없이 취소되어도 다음 요청이 다시 시험할 수 있는지 확인합니다.
+ */
+class TTSProviderRouterTest {
+
+    private TTSProviderRouter router;
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) {
+            router.destroy();
+        }
+    }
+
+    // 실패 1번에 열리고 즉시 반쯤 열린 상태가 되는 브레이커
+    private TTSProviderRouter newRouter(boolean hedgeEnabled) {
+        return new TTSProviderRouter(new SimpleMeterRegistry(), new MockEnvironment(),
+                3000, 3000, hedgeEnabled, 20, 10, 1, 0, 8);
+    }
+
+    @Test
+    void trialCancelledBySinkFailureIsReleased() throws Exception {
+        router = newRouter(false);
+        ScriptedClient local = new ScriptedClient(TTSProvider.LOCAL);
+        TTSProviderRouter.Candidate candidate = candidate(local);
+
+        openBreaker(local, candidate);
+
+        // 시험 요청이 첫 청크를 보낸 뒤 클라이언트 연결이 끊김
+        local.mode = Mode.OK;
+        assertThatThrownBy(() -> router.route(List.of(candidate), (chunk, durationMs) -> {
+            throw new IOException("client gone");
+        })).isInstanceOf(IOException.class);
+
+        assertNextRequestIsAllowed(local, candidate);
+    }
+
+    @Test
+    void trialCancelledAsHedgeLoserIsReleased() throws Exception {
+        router = newRouter(true);
+        ScriptedClient slow = new ScriptedClient(TTSProvider.LOCAL);
+        ScriptedClient fast = new ScriptedClient(TTSProvider.OPENAI);
+        TTSProviderRouter.Candidate slowCandidate = candidate(slow);
+        TTSProviderRouter.Candidate fastCandidate = candidate(fast);
+
+        openBreaker(slow, slowCandidate);
+
+        // 느린 시험 요청이 헤지 요청에 져서 취소됨
+        slow.mode = Mode.SLOW;
+        TTSProviderRouter.Candidate winner = router.route(List.of(slowCandidate, fastCandidate), (chunk, durationMs) -> { });
+        assertThat(winner).isSameAs(fastCandidate);
+
+        assertNextRequestIsAllowed(slow, slowCandidate);
+    }
+
+    @Test
+    void trialStaysExclusiveWhileInFlight() throws Exception {
+        router = newRouter(false);
+        ScriptedClient local = new ScriptedClient(TTSProvider.LOCAL);
+        TTSProviderRouter.Candidate candidate = candidate(local);
+
+        openBreaker(local, candidate);
+
+        // 시험 요청이 진행 중인 동안 다른 요청은 차단됨
+        local.mode = Mode.OK;
+        AtomicInteger blockedCalls = new AtomicInteger();
+        router.route(List.of(candidate), (chunk, durationMs) -> {
+            if (blockedCalls.get() == 0) {
+                blockedCalls.incrementAndGet();
+                assertThatThrownBy(() -> router.route(List.of(candidate), (c, d) -> { }))
+                        .isInstanceOf(RuntimeException.class)
+                        .hasMessageContaining("All TTS providers failed");
+            }
+        });
+        assertThat(blockedCalls.get()).isEqualTo(1);
+    }
+
+    private void openBreaker(ScriptedClient client, TTSProviderRouter.Candidate candidate) {
+        client.mode = Mode.FAIL;
+        assertThatThrownBy(() -> router.route(List.of(candidate), (chunk, durationMs) -> { }))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    private void assertNextRequestIsAllowed(ScriptedClient client, TTSProviderRouter.Candidate candidate) throws IOException {
+        client.mode = Mode.OK;
+        int callsBefore = client.calls.get();
+        TTSProviderRouter.Candidate winner = router.route(List.of(candidate), (chunk, durationMs) -> { });
+        assertThat(winner).isSameAs(candidate);
+        assertThat(client.calls.get()).isEqualTo(callsBefore + 1);
+    }
+
+    private static TTSProviderRouter.Candidate candidate(ScriptedClient client) {
+        TTSSynthesisRequest request = TTSSynthesisRequest.builder()
+                .provider(client.getProvider())
+                .text("hello")
+                .audioFormat(AudioFormat.PCM)
+                .build();
+        return new TTSProviderRouter.Candidate(client.getProvider().name(), client, request);
+    }
+
+    private enum Mode { OK, FAIL, SLOW }
+
+    private static final class ScriptedClient implements TTSProviderClient {
+        private final TTSProvider provider;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Mode mode = Mode.OK;
+
+        private ScriptedClient(TTSProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public TTSProvider getProvider() {
+            return provider;
+        }
+
+        @Override
+        public void synthesize(TTSSynthesisRequest request, ChunkSink sink) throws IOException {
+            calls.incrementAndGet();
+            switch (mode) {
+                case FAIL -> throw new IOException("provider down");
+                case SLOW -> {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("cancelled");
+                    }
+                    sink.accept(new byte[]{1}, 10);
+                }
+                case OK -> {
+                    sink.accept(new byte[]{1}, 10);
+                    sink.accept(new byte[]{2}, 10);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.langhakers.talki.service;
+
+import com.langhakers.talki.dto.ResolvedTTSRoute;
+import com.langhakers.talki.entity.AudioFormat;
+import com.langhakers.talki.entity.ConversationSession;
+import com.langhakers.talki.entity.StreamingStatus;
+import com.langhakers.talki.entity.TTSProvider;
+import com.langhakers.talki.entity.TTSRoutingConfig;
+import com.langhakers.talki.entity.TTSStreamingSession;
+import com.langhakers.talki.exception.ResourceNotFoundException;
+import com.langhakers.talki.repository.TTSStreamingSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * LOCAL 제공업체로 스트리밍 경로의 첫 바이트 도달 시간(TTFB)과 open()의 예외 규약을 확인합니다.
+ */
+class TTSStreamingServiceTest {
+
+    private static final long FIRST_CHUNK_DELAY_MS = 50;
+    private static final long CHUNK_DELAY_MS = 80;
+
+    private TTSStreamingSessionRepository repository;
+    private TTSStreamingProgressTracker progressTracker;
+    private TTSProviderRouter router;
+    private TTSStreamingService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TTSStreamingSessionRepository.class);
+        progressTracker = mock(TTSStreamingProgressTracker.class);
+        TTSAudioCache audioCache = mock(TTSAudioCache.class);
+        TTSRoutingCache routingCache = mock(TTSRoutingCache.class);
+        when(routingCache.resolve(anyString(), anyString()))
+                .thenReturn(new ResolvedTTSRoute("session-1", "ai1", List.of()));
+
+        LocalTTSProviderClient client = new LocalTTSProviderClient();
+        ReflectionTestUtils.setField(client, "firstChunkDelayMs", FIRST_CHUNK_DELAY_MS);
+        ReflectionTestUtils.setField(client, "chunkDelayMs", CHUNK_DELAY_MS);
+        ReflectionTestUtils.setField(client, "chunkMs", 100);
+        ReflectionTestUtils.setField(client, "msPerChar", 100);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        router = new TTSProviderRouter(meterRegistry, new MockEnvironment(),
+                3000, 10000, false, 1000, 50, 5, 30, 8);
+        service = new TTSStreamingService(repository, progressTracker, audioCache, routingCache, router,
+                List.of(client), meterRegistry, "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    @Test
+    void firstChunkIsWrittenLongBeforeSynthesisCompletes() throws Exception {
+        // 10글자 * 100ms = 1초 분량, 100ms 청크 10개 (청크 간 80ms)
+        when(repository.findByStreamingSessionId("stream-1")).thenReturn(Optional.of(pendingSession("ai1", "0123456789")));
+        when(repository.claimStreaming(eq(7L), eq(StreamingStatus.PENDING), eq(StreamingStatus.IN_PROGRESS), any()))
+                .thenReturn(1);
+        TTSStreamingService.StreamTicket ticket = service.open("ai1", "stream-1");
+        verify(progressTracker).updateStatus("stream-1", StreamingStatus.IN_PROGRESS);
+
+        TimingOutputStream out = new TimingOutputStream();
+        long start = System.nanoTime();
+        service.stream(ticket, out);
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long ttfbMs = TimeUnit.NANOSECONDS.toMillis(out.firstWriteNanos - start);
+
+        assertThat(out.writes).isGreaterThan(10);
+        assertThat(totalMs).isGreaterThanOrEqualTo(9 * CHUNK_DELAY_MS);
+        // 전체 합성을 기다리지 않고 첫 청크(WAV 헤더)가 바로 전달되어야 함
+        assertThat(ttfbMs).isLessThan(FIRST_CHUNK_DELAY_MS + 300);
+        assertThat(ttfbMs).isLessThan(totalMs / 2);
+        verify(repository).finishStreaming(eq(7L), eq(StreamingStatus.COMPLETED), anyInt(), anyLong(), anyLong(),
+                any(), any(), any(), any());
+    }
+
+    @Test
+    void openThrowsNotFoundForMissingSession() {
+        when(repository.findByStreamingSessionId("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.open("ai1", "missing")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void openThrowsNotFoundForOtherCharacter() {
+        when(repository.findByStreamingSessionId("stream-1")).thenReturn(Optional.of(pendingSession("ai1", "hello")));
+
+        assertThatThrownBy(() -> service.open("ai2", "stream-1")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void openRejectsAlreadyStartedSession() {
+        TTSStreamingSession session = pendingSession("ai1", "hello");
+        session.setStatus(StreamingStatus.IN_PROGRESS);
+        when(repository.findByStreamingSessionId("stream-1")).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> service.open("ai1", "stream-1")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void openRejectsSessionClaimedConcurrently() {
+        // 조회 시점에는 PENDING이었지만 다른 요청이 먼저 시작한 경우
+        when(repository.findByStreamingSessionId("stream-1")).thenReturn(Optional.of(pendingSession("ai1", "hello")));
+        when(repository.claimStreaming(eq(7L), eq(StreamingStatus.PENDING), eq(StreamingStatus.IN_PROGRESS), any()))
+                .thenReturn(0);
+
+        assertThatThrownBy(() -> service.open("ai1", "stream-1")).isInstanceOf(IllegalStateException.class);
+        verify(progressTracker, never()).updateStatus(anyString(), any());
+    }
+
+    private static TTSStreamingSession pendingSession(String participantId, String text) {
+        ConversationSession conversation = new ConversationSession();
+        conversation.setSessionId("session-1");
+
+        TTSRoutingConfig config = new TTSRoutingConfig();
+        config.setSession(conversation);
+        config.setRoutingId("routing-1");
+        config.setParticipantId(participantId);
+        config.setProvider(TTSProvider.LOCAL);
+        config.setVoiceId("voice");
+        config.setLanguage("ko");
+        config.setAudioFormat(AudioFormat.WAV);
+        config.setSampleRate(8000);
+
+        TTSStreamingSession session = new TTSStreamingSession();
+        session.setId(7L);
+        session.setRoutingConfig(config);
+        session.setStreamingSessionId("stream-1");
+        session.setUtteranceText(text);
+        session.setStatus(StreamingStatus.PENDING);
+        return session;
+    }
+
+    private static final class TimingOutputStream extends OutputStream {
+        private volatile long firstWriteNanos;
+        private int writes;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (writes++ == 0) {
+                firstWriteNanos = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.langhakers.talki.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.langhakers.talki.dto.MessageDTO;
+import com.langhakers.talki.dto.TALKiCreateBranchDTO;
+import com.langhakers.talki.dto.TALKiJoinSessionDTO;
+import com.langhakers.talki.dto.TALKiResponseDTO;
+import com.langhakers.talki.service.ChatService;
+import com.langhakers.talki.service.RoomEventPublisher;
+import com.langhakers.talki.service.TALKiSimpleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 수신 프레임을 한 번에 타입별 DTO로 읽는 디코딩(TALKiInboundMessageDTO)의 경계 사례를 확인합니다.
+ */
+class TalkiWebSocketHandlerInboundTest {
+
+    private ChatService chatService;
+    private TALKiSimpleService talkiService;
+    private WebSocketOutboundDispatcher outboundDispatcher;
+    private RoomEventPublisher roomEventPublisher;
+    private WebSocketSession session;
+    private TalkiWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        chatService = mock(ChatService.class);
+        talkiService = mock(TALKiSimpleService.class);
+        outboundDispatcher = mock(WebSocketOutboundDispatcher.class);
+        roomEventPublisher = mock(RoomEventPublisher.class);
+        WebSocketInboundDispatcher inboundDispatcher = mock(WebSocketInboundDispatcher.class);
+        // 순서 보장 실행기 대신 호출 스레드에서 바로 처리
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        }).when(inboundDispatcher).submit(any(), any());
+        when(outboundDispatcher.send(any(), any())).thenReturn(true);
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("ws-1");
+        when(session.getUri()).thenReturn(new URI("ws://localhost/ws/room-1"));
+        when(session.getAttributes()).thenReturn(new ConcurrentHashMap<>());
+        when(session.isOpen()).thenReturn(true);
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        handler = new TalkiWebSocketHandler(objectMapper, chatService, talkiService,
+                outboundDispatcher, inboundDispatcher, roomEventPublisher);
+        handler.afterConnectionEstablished(session);
+    }
+
+    @Test
+    void decodesDataThatArrivesBeforeType() throws Exception {
+        when(talkiService.handleJoinSession(any())).thenReturn(TALKiResponseDTO.success("joined", null));
+
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"data\":{\"session_id\":\"s-1\",\"participant_id\":\"p-1\",\"participant_name\":\"민지\"},"
+                        + "\"type\":\"JOIN_SESSION\"}"));
+
+        ArgumentCaptor<TALKiJoinSessionDTO> request = ArgumentCaptor.forClass(TALKiJoinSessionDTO.class);
+        verify(talkiService).handleJoinSession(request.capture());
+        assertThat(request.getValue().getSessionId()).isEqualTo("s-1");
+        assertThat(request.getValue().getParticipantId()).isEqualTo("p-1");
+        verify(talkiService).registerSession("p-1", session);
+        assertThat(sentFrames()).noneMatch(frame -> frame.contains("MESSAGE_PROCESSING_ERROR"));
+    }
+
+    @Test
+    void decodesBranchDataThatArrivesBeforeType() throws Exception {
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"data\":{\"session_id\":\"s-1\",\"branch_name\":\"b\"},\"type\":\"CREATE_BRANCH\"}"));
+
+        ArgumentCaptor<TALKiCreateBranchDTO> request = ArgumentCaptor.forClass(TALKiCreateBranchDTO.class);
+        verify(talkiService).handleCreateBranch(request.capture());
+        assertThat(request.getValue().getBranchName()).isEqualTo("b");
+    }
+
+    @Test
+    void unknownTypeWithDataFallsBackToLegacyMessage() throws Exception {
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"type\":\"PING\",\"data\":{\"nested\":{\"x\":1}},\"senderId\":\"u-1\",\"content\":\"안녕\"}"));
+        // data가 먼저 와서 버퍼에 담긴 경우도 같은 결과
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"data\":[1,{\"y\":2}],\"senderId\":\"u-2\",\"type\":\"PING\",\"content\":\"hi\"}"));
+
+        ArgumentCaptor<MessageDTO> saved = ArgumentCaptor.forClass(MessageDTO.class);
+        verify(chatService, times(2)).saveMessage(saved.capture());
+        assertThat(saved.getAllValues()).extracting(MessageDTO::getSenderId).containsExactly("u-1", "u-2");
+        assertThat(saved.getAllValues()).extracting(MessageDTO::getContent).containsExactly("안녕", "hi");
+        assertThat(sentFrames()).noneMatch(frame -> frame.contains("MESSAGE_PROCESSING_ERROR"));
+    }
+
+    @Test
+    void missingTypeIsRoutedToLegacyHandling() throws Exception {
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"senderId\":\"u-1\",\"senderName\":\"민지\",\"content\":\"hello\"}"));
+
+        ArgumentCaptor<MessageDTO> saved = ArgumentCaptor.forClass(MessageDTO.class);
+        verify(chatService).saveMessage(saved.capture());
+        assertThat(saved.getValue().getSenderName()).isEqualTo("민지");
+        assertThat(saved.getValue().getRoomId()).isEqualTo("room-1");
+        verify(roomEventPublisher).publishLegacyRoom(eq("room-1"), any());
+        assertThat(sentFrames()).anyMatch(frame -> frame.contains("hello"));
+    }
+
+    @Test
+    void wrongShapeDataProducesProcessingError() throws Exception {
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"JOIN_SESSION\",\"data\":[1,2,3]}"));
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"CREATE_BRANCH\",\"data\":\"branch\"}"));
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"CHARACTER_MESSAGE\"}"));
+
+        assertThat(sentFrames()).filteredOn(frame -> frame.contains("MESSAGE_PROCESSING_ERROR")).hasSize(3);
+        verify(talkiService, never()).handleJoinSession(any());
+        verify(talkiService, never()).handleCreateBranch(any());
+        verify(talkiService, never()).handleCharacterMessage(any());
+        verify(chatService, never()).saveMessage(any());
+    }
+
+    private List<String> sentFrames() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> frames = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(outboundDispatcher, atLeastOnce()).send(eq(session), frames.capture());
+        return frames.getAllValues().stream()
+                .map(frame -> frame instanceof TextMessage text ? text.getPayload() : "")
+                .toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.langhakers.talki.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 전송이 막힌 느린 클라이언트가 많아도 다른 세션의 전송과 연결 종료가 지연되지 않는지 확인합니다.
+ */
+class WebSocketOutboundDispatcherTest {
+
+    private static final int SLOW_SESSIONS = 16;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private WebSocketOutboundDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // 전송 시간 제한은 테스트보다 길게 두어 watchdog이 개입하지 않도록 함
+        dispatcher = new WebSocketOutboundDispatcher(2, WebSocketOutboundDispatcher.OverflowPolicy.DISCONNECT,
+                60_000, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        dispatcher.destroy();
+    }
+
+    @Test
+    void slowClientsDoNotStallOtherSessions() throws Exception {
+        List<WebSocketSession> slowSessions = new ArrayList<>();
+        for (int i = 0; i < SLOW_SESSIONS; i++) {
+            WebSocketSession slow = session("slow-" + i);
+            doAnswer(invocation -> release.await(30, TimeUnit.SECONDS)).when(slow).sendMessage(any());
+            dispatcher.register(slow);
+            dispatcher.send(slow, new TextMessage("blocked"));
+            slowSessions.add(slow);
+        }
+        for (WebSocketSession slow : slowSessions) {
+            verify(slow, timeout(5_000)).sendMessage(any());
+        }
+
+        WebSocketSession fast = session("fast");
+        CountDownLatch delivered = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            delivered.countDown();
+            return null;
+        }).when(fast).sendMessage(any());
+        dispatcher.register(fast);
+        dispatcher.send(fast, new TextMessage("hello"));
+
+        assertThat(delivered.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void overflowDisconnectRunsWhileWritersAreBlocked() throws Exception {
+        for (int i = 0; i < SLOW_SESSIONS; i++) {
+            WebSocketSession slow = session("slow-" + i);
+            doAnswer(invocation -> release.await(30, TimeUnit.SECONDS)).when(slow).sendMessage(any());
+            dispatcher.register(slow);
+            dispatcher.send(slow, new TextMessage("blocked"));
+        }
+
+        WebSocketSession overflowing = session("overflowing");
+        doAnswer(invocation -> release.await(30, TimeUnit.SECONDS)).when(overflowing).sendMessage(any());
+        dispatcher.register(overflowing);
+        // 첫 메시지는 전송 중에 막히고, 이후 큐(용량 2)를 넘기면 연결 종료
+        for (int i = 0; i < 4; i++) {
+            dispatcher.send(overflowing, new TextMessage("m-" + i));
+        }
+
+        verify(overflowing, timeout(2_000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}